@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+# Load benchmark: platform-thread Tomcat pool vs the virtual-threads profile, same jar, same load.
+# For each mode it starts the app, registers and logs in a benchmark user, then runs LoadDriver with
+# CONCURRENCY closed-loop clients over a JDBC-bound mix (plus a bcrypt login) and reports per-endpoint
+# throughput and p50/p90/p99. Needs Java 21 and the MySQL configured in application.properties.
+# Results: target/load-benchmark/<mode>.json
+#
+# Usage: scripts/load-benchmark.sh            (SKIP_BUILD=true, CONCURRENCY, DURATION, WARMUP, TOMCAT_THREADS)
+set -euo pipefail
+
+CONCURRENCY=${CONCURRENCY:-800}
+DURATION=${DURATION:-60}
+WARMUP=${WARMUP:-15}
+TOMCAT_THREADS=${TOMCAT_THREADS:-200}
+PORT=${PORT:-8080}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT=$ROOT/target/load-benchmark
+JAR=$ROOT/target/spring_data_jpa_project-0.0.1-SNAPSHOT.jar
+DRIVER=$ROOT/src/test/java/com/wcs/spring_data_jpa_project/loadtest/LoadDriver.java
+BASE=http://localhost:$PORT
+USER_EMAIL=load-benchmark@example.com
+USER_PASSWORD=load-benchmark-secret
+
+if [[ "${SKIP_BUILD:-false}" != "true" ]]; then
+  (cd "$ROOT" && ./mvnw -q -B -DskipTests package)
+fi
+mkdir -p "$OUT"
+
+run_mode() {
+  local mode=$1
+  shift
+  local log="$OUT/$mode.log"
+  (cd "$OUT" && exec java -jar "$JAR" --server.port="$PORT" --server.tomcat.threads.max="$TOMCAT_THREADS" "$@") > "$log" 2>&1 &
+  local pid=$!
+  until curl -s -o /dev/null "$BASE/api/users/email-available?email=$USER_EMAIL"; do
+    kill -0 "$pid" 2>/dev/null || { echo "$mode exited during startup, see $log" >&2; exit 1; }
+    sleep 0.2
+  done
+
+  # Already registered on the second run: the 400 is fine
+  curl -s -o /dev/null -H 'Content-Type: application/json' -X POST "$BASE/api/users/register" \
+    -d "{\"userName\":\"loadbench\",\"email\":\"$USER_EMAIL\",\"address\":\"Pune\",\"contact\":\"9876543210\",\"password\":\"$USER_PASSWORD\"}"
+  local token
+  token=$(curl -s -H 'Content-Type: application/json' -X POST "$BASE/api/users/login" \
+    -d "{\"email\":\"$USER_EMAIL\",\"password\":\"$USER_PASSWORD\"}" | sed -n 's/.*"data":"\([^"]*\)".*/\1/p')
+  [[ -n "$token" ]] || { echo "$mode: login failed, see $log" >&2; kill "$pid"; exit 1; }
+
+  echo "== $mode (concurrency $CONCURRENCY, ${DURATION}s after ${WARMUP}s warm-up)"
+  java "$DRIVER" --base "$BASE" --concurrency "$CONCURRENCY" --warmup "$WARMUP" --duration "$DURATION" \
+    --header "Authorization: Bearer $token" \
+    --endpoint "countByEmailDomain|GET|/api/users/countByEmailDomain/example.com|4" \
+    --endpoint "departmentCount|GET|/api/departments/count?name=IT|4" \
+    --endpoint "emailAvailable|GET|/api/users/email-available?email=user{random:1000000}@example.com|4" \
+    --endpoint "login|POST|/api/users/login|1|{\"email\":\"$USER_EMAIL\",\"password\":\"$USER_PASSWORD\"}" \
+    --json "$OUT/$mode.json"
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+}
+
+run_mode platform-threads
+run_mode virtual-threads --spring.profiles.active=virtual-threads
+
+echo "== TOTAL"
+for mode in platform-threads virtual-threads; do
+  grep '"TOTAL"' "$OUT/$mode.json" | sed "s/^/$mode: /"
+done
@@ -0,0 +1,22 @@
+#!/usr/bin/env bash
+# In-JVM load test: boots the app with the load-test profile (H2 in MySQL mode under target/load-test),
+# seeds the synthetic dataset, then runs the endpoint mix in LoadTestHarness and prints throughput and
+# p50/p90/p99 per endpoint. No MySQL needed. Results: target/load-test-results.json
+#
+# Usage: scripts/load-test.sh [--app.load-test.users=200000 --app.load-test.duration-s=60 ...]
+#        (SKIP_BUILD=true, JAVA_OPTS; see src/test/resources/application-load-test.properties)
+set -euo pipefail
+
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+CLASSPATH_FILE=$ROOT/target/load-test-classpath.txt
+JAVA_OPTS=${JAVA_OPTS:--Xms2g -Xmx4g}
+
+cd "$ROOT"
+if [[ "${SKIP_BUILD:-false}" != "true" || ! -f "$CLASSPATH_FILE" ]]; then
+  ./mvnw -q -B test-compile dependency:build-classpath \
+    -Dmdep.includeScope=test -Dmdep.outputFile="$CLASSPATH_FILE"
+fi
+
+# shellcheck disable=SC2086
+exec java $JAVA_OPTS -cp "target/classes:target/test-classes:$(cat "$CLASSPATH_FILE")" \
+  com.wcs.spring_data_jpa_project.loadtest.LoadTestHarness "$@"
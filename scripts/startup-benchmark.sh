@@ -0,0 +1,81 @@
+#!/usr/bin/env bash
+# Startup benchmark: default build vs the fast-startup build (Spring AOT + AppCDS + prod profile).
+# For each mode it starts the app RUNS times (after one discarded warm-up start) and records
+#   ready_ms    launch -> first HTTP response from /api/users/email-available (public endpoint)
+#   started_s   Spring's own "Started ... in N seconds"
+#   rss_kb      resident set size once ready
+# Needs the MySQL configured in application.properties. Results go to target/startup-benchmark/results.csv.
+#
+# Usage: scripts/startup-benchmark.sh [runs]        (SKIP_BUILD=true to reuse the last build)
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-8080}
+TIMEOUT_S=${TIMEOUT_S:-120}
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT=$ROOT/target/startup-benchmark
+JAR=spring_data_jpa_project-0.0.1-SNAPSHOT.jar
+URL="http://localhost:$PORT/api/users/email-available?email=startup-benchmark@example.com"
+
+if [[ "${SKIP_BUILD:-false}" != "true" ]]; then
+  (cd "$ROOT" && ./mvnw -q -B -DskipTests package)
+  mkdir -p "$OUT/default"
+  cp "$ROOT/target/$JAR" "$OUT/default/$JAR"
+  (cd "$ROOT" && ./mvnw -q -B -DskipTests -Pfast-startup package)
+fi
+
+# start_once <mode> <dir> <java args...>: prints "ready_ms,started_s,rss_kb"
+start_once() {
+  local mode=$1 dir=$2
+  shift 2
+  local log="$OUT/$mode.log"
+  local begin
+  begin=$(date +%s%N)
+  (cd "$dir" && exec java "$@" --server.port="$PORT") > "$log" 2>&1 &
+  local pid=$!
+  until curl -s -o /dev/null "$URL"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "$mode exited before becoming ready, see $log" >&2
+      exit 1
+    fi
+    if (( ($(date +%s%N) - begin) / 1000000000 > TIMEOUT_S )); then
+      kill "$pid"
+      echo "$mode not ready after ${TIMEOUT_S}s, see $log" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  local ready_ms=$(( ($(date +%s%N) - begin) / 1000000 ))
+  local rss_kb
+  rss_kb=$(ps -o rss= -p "$pid" | tr -d ' ')
+  local started_s
+  started_s=$(grep -o 'Started SpringDataJpaProjectApplication in [0-9.]*' "$log" | awk '{print $NF}' || true)
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  echo "$ready_ms,${started_s:-NA},$rss_kb"
+}
+
+bench() {
+  local mode=$1
+  shift
+  start_once "$mode" "$@" > /dev/null
+  for ((i = 1; i <= RUNS; i++)); do
+    result=$(start_once "$mode" "$@")
+    echo "$mode,$i,$result" >> "$OUT/results.csv"
+  done
+}
+
+mkdir -p "$OUT"
+echo "mode,run,ready_ms,started_s,rss_kb" > "$OUT/results.csv"
+bench default "$OUT/default" -jar "$JAR"
+bench fast-startup "$ROOT/target/app" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+  -jar "$JAR" --spring.profiles.active=prod
+
+# Median per mode
+echo "mode          median_ready_ms  median_rss_mb"
+for mode in default fast-startup; do
+  ready=$(awk -F, -v m="$mode" '$1 == m {print $3}' "$OUT/results.csv" | sort -n | awk '{a[NR]=$1} END {print a[int((NR + 1) / 2)]}')
+  rss=$(awk -F, -v m="$mode" '$1 == m {print $5}' "$OUT/results.csv" | sort -n | awk '{a[NR]=$1} END {printf "%.0f", a[int((NR + 1) / 2)] / 1024}')
+  printf "%-13s %15s %14s\n" "$mode" "$ready" "$rss"
+done
+echo "Raw results: $OUT/results.csv"
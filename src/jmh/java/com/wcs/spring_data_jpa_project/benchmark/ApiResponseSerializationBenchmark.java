@@ -0,0 +1,75 @@
+package com.wcs.spring_data_jpa_project.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wcs.spring_data_jpa_project.customeResponse.ApiResponse;
+import com.wcs.spring_data_jpa_project.model.Department;
+import com.wcs.spring_data_jpa_project.model.Role;
+import com.wcs.spring_data_jpa_project.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of an ApiResponse&lt;List&lt;User&gt;&gt; the way the user list endpoints return it:
+ * fully loaded users with department, roles and audit timestamps, written by a mapper built like
+ * Spring Boot's (Jackson2ObjectMapperBuilder, so java.time is registered).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ApiResponseSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int users;
+
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<User>> response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        Role userRole = new Role(1L, "ROLE_USER");
+        Role adminRole = new Role(2L, "ROLE_ADMIN");
+        Department[] departments = new Department[10];
+        for (int i = 0; i < departments.length; i++) {
+            departments[i] = new Department();
+            departments[i].setId((long) i + 1);
+            departments[i].setDeptCode("D" + i);
+            departments[i].setDeptName("Dept-" + i);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<User> list = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setUserName("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setEmailDomain("example.com");
+            user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z6Y0Zf1rXcN2aZb3y8m1lV1K");
+            user.setAddress(i % 2 == 0 ? "Pune" : "Mumbai");
+            user.setContact("98765" + (i % 100));
+            user.setDepartment(departments[i % departments.length]);
+            user.setRoles(i % 5 == 0 ? Set.of(userRole, adminRole) : Set.of(userRole));
+            user.setCreatedAt(now);
+            user.setUpdatedAt(now);
+            user.setCreatedBy("admin");
+            user.setUpdatedBy("admin");
+            list.add(user);
+        }
+        response = new ApiResponse<>("Users fetched successfully", list);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,89 @@
+package com.wcs.spring_data_jpa_project.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result with one from an earlier build (mvn -Pjmh verify -Djmh.baseline=old.json).
+ * A benchmark counts as regressed when it got worse by more than the threshold and the two scores are
+ * further apart than their combined error, so run-to-run noise does not fail the build. Exits 1 on a
+ * regression; does nothing without a baseline.
+ */
+public final class JmhResultComparison {
+
+    private record Score(double value, double error, String unit, boolean lowerIsBetter) {
+    }
+
+    private JmhResultComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (arg.startsWith("--") && eq > 0) {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        String baseline = options.getOrDefault("baseline", "");
+        if (baseline.isBlank()) {
+            System.out.println("No JMH baseline given (-Djmh.baseline=<result.json>), skipping comparison");
+            return;
+        }
+        double threshold = Double.parseDouble(options.getOrDefault("threshold", "0.10"));
+        Map<String, Score> before = read(Path.of(baseline));
+        Map<String, Score> after = read(Path.of(options.get("current")));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "benchmark", "baseline", "current", "change");
+        for (Map.Entry<String, Score> entry : after.entrySet()) {
+            Score current = entry.getValue();
+            Score previous = before.get(entry.getKey());
+            if (previous == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", current.value(), "new");
+                continue;
+            }
+            double change = (current.value() - previous.value()) / previous.value();
+            double worse = current.lowerIsBetter() ? change : -change;
+            boolean beyondNoise = Math.abs(current.value() - previous.value()) > current.error() + previous.error();
+            boolean regressed = worse > threshold && beyondNoise;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %s%s%n", entry.getKey(), previous.value(), current.value(),
+                    change * 100, current.unit(), regressed ? "  REGRESSION" : "");
+        }
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(Path file) throws IOException {
+        JsonNode results = new ObjectMapper().readTree(Files.readString(file));
+        Map<String, Score> scores = new TreeMap<>();
+        for (JsonNode result : results) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            JsonNode params = result.path("params");
+            for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> param = it.next();
+                key.append(key.indexOf(":") < 0 ? ":" : ",").append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            JsonNode metric = result.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key.toString(), new Score(metric.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error,
+                    metric.path("scoreUnit").asText(),
+                    !"thrpt".equals(result.path("mode").asText())));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,91 @@
+package com.wcs.spring_data_jpa_project.benchmark;
+
+import com.wcs.spring_data_jpa_project.jwt.JwtService;
+import com.wcs.spring_data_jpa_project.jwt.JwtTokenProvider;
+import com.wcs.spring_data_jpa_project.jwt.TokenRevocationStore;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token work done on every authenticated request. JwtService runs with its verified-token cache sized
+ * 0 (every validation parses and checks the HMAC) and at the default size (repeat tokens are a cache
+ * hit); JwtTokenProvider has no cache and parses with a fresh parser per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private static final String SECRET = "benchmark_secret_key_that_is_long_enough_for_hs256";
+    private static final String USERNAME = "benchmark@example.com";
+    private static final List<String> ROLES = List.of("ROLE_USER", "ROLE_ADMIN");
+
+    @Param({"0", "10000"})
+    public int cacheMaxEntries;
+
+    private Path revocationDir;
+    private TokenRevocationStore revocationStore;
+    private JwtService jwtService;
+    private JwtTokenProvider tokenProvider;
+    private String serviceToken;
+    private String providerToken;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        revocationDir = Files.createTempDirectory("jwt-bench");
+        revocationStore = new TokenRevocationStore(revocationDir.resolve("revocations.log").toString(), 60_000, 900_000);
+        jwtService = new JwtService(SECRET, cacheMaxEntries, 900_000, new SimpleMeterRegistry(), revocationStore);
+        serviceToken = jwtService.generateToken(USERNAME, ROLES);
+
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "secretKey", SECRET);
+        ReflectionTestUtils.setField(tokenProvider, "validityInMs", 86_400_000L);
+        ReflectionTestUtils.invokeMethod(tokenProvider, "init");
+        providerToken = tokenProvider.createToken(USERNAME, ROLES);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        revocationStore.close();
+        try (var files = Files.walk(revocationDir)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(USERNAME, ROLES);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(serviceToken, USERNAME);
+    }
+
+    @Benchmark
+    public String extractClaim() {
+        return jwtService.extractClaim(serviceToken, Claims::getSubject);
+    }
+
+    @Benchmark
+    public String providerCreateToken() {
+        return tokenProvider.createToken(USERNAME, ROLES);
+    }
+
+    @Benchmark
+    public Authentication providerGetAuthentication() {
+        return tokenProvider.getAuthentication(providerToken);
+    }
+}
@@ -0,0 +1,150 @@
+package com.wcs.spring_data_jpa_project.benchmark;
+
+import com.wcs.spring_data_jpa_project.dto.UserListDTO;
+import com.wcs.spring_data_jpa_project.model.Department;
+import com.wcs.spring_data_jpa_project.model.Role;
+import com.wcs.spring_data_jpa_project.model.User;
+import com.wcs.spring_data_jpa_project.model.UserQueries;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.*;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the user list queries: a Criteria tree built and interpreted on every call (how
+ * UserService used to do it) against the precompiled named queries from UserQueries. Both run the
+ * same SQL against an in-memory H2 database, so the difference is query construction and translation.
+ * The *Build variants stop before execution and measure only building the query and handing it to
+ * Hibernate (Criteria tree + SQM translation vs a lookup in the named query cache).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryCatalogBenchmark {
+
+    private static final String CITY = "Pune";
+    private static final String CONTACT = "9876500";
+    private static final String DEPARTMENT = "Dept-3";
+
+    private SessionFactory sessionFactory;
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(User.class)
+                .addAnnotatedClass(Role.class)
+                .addAnnotatedClass(Department.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL,
+                        "jdbc:h2:mem:bench;MODE=MySQL;NON_KEYWORDS=USER;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_PASSWORD, "")
+                // Spring Boot's naming strategies, so columns are user_name etc. and the @Index definitions apply
+                .setProperty(AvailableSettings.PHYSICAL_NAMING_STRATEGY, CamelCaseToUnderscoresNamingStrategy.class.getName())
+                .setProperty(AvailableSettings.IMPLICIT_NAMING_STRATEGY, SpringImplicitNamingStrategy.class.getName())
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                // A failed CREATE INDEX would otherwise only be logged and the queries measured without it
+                .setProperty(AvailableSettings.HBM2DDL_HALT_ON_ERROR, "true")
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+                .buildSessionFactory();
+
+        sessionFactory.inTransaction(session -> {
+            Department[] departments = new Department[10];
+            for (int i = 0; i < departments.length; i++) {
+                departments[i] = new Department();
+                departments[i].setDeptCode("D" + i);
+                departments[i].setDeptName("Dept-" + i);
+                session.persist(departments[i]);
+            }
+            for (int i = 0; i < 1000; i++) {
+                User user = new User();
+                user.setUserName("user" + i);
+                user.setEmail("user" + i + "@example.com");
+                user.setPassword("secret");
+                user.setAddress(i % 4 == 0 ? CITY : "City-" + (i % 4));
+                user.setContact("98765" + (i % 100));
+                user.setDepartment(departments[i % departments.length]);
+                session.persist(user);
+            }
+        });
+        entityManager = sessionFactory.createEntityManager();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public List<UserListDTO> filteredUsersCriteria() {
+        return entityManager.createQuery(filteredCriteria()).getResultList();
+    }
+
+    @Benchmark
+    public List<UserListDTO> filteredUsersNamed() {
+        TypedQuery<UserListDTO> query = entityManager.createNamedQuery(UserQueries.filtered(true, true), UserListDTO.class);
+        query.setParameter("city", CITY);
+        query.setParameter("contact", CONTACT);
+        return query.getResultList();
+    }
+
+    @Benchmark
+    public TypedQuery<UserListDTO> filteredUsersCriteriaBuild() {
+        return entityManager.createQuery(filteredCriteria());
+    }
+
+    @Benchmark
+    public TypedQuery<UserListDTO> filteredUsersNamedBuild() {
+        return entityManager.createNamedQuery(UserQueries.filtered(true, true), UserListDTO.class)
+                .setParameter("city", CITY)
+                .setParameter("contact", CONTACT);
+    }
+
+    @Benchmark
+    public List<UserListDTO> usersByDepartmentCriteria() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserListDTO> cq = cb.createQuery(UserListDTO.class);
+        Root<User> root = cq.from(User.class);
+        Join<User, Department> join = root.join("department");
+
+        cq.select(listColumns(cb, root, join)).where(cb.equal(join.get("deptName"), DEPARTMENT));
+        return entityManager.createQuery(cq).getResultList();
+    }
+
+    @Benchmark
+    public List<UserListDTO> usersByDepartmentNamed() {
+        return entityManager.createNamedQuery(UserQueries.LIST_BY_DEPARTMENT_NAME, UserListDTO.class)
+                .setParameter("deptName", DEPARTMENT)
+                .getResultList();
+    }
+
+    // The tree getFilteredUsers built per call before the named queries
+    private CriteriaQuery<UserListDTO> filteredCriteria() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserListDTO> cq = cb.createQuery(UserListDTO.class);
+        Root<User> root = cq.from(User.class);
+        Join<User, Department> department = root.join("department", JoinType.LEFT);
+
+        Predicate finalPredicate = cb.conjunction();
+        finalPredicate = cb.and(finalPredicate, cb.equal(root.get("address"), CITY));
+        finalPredicate = cb.and(finalPredicate, cb.equal(root.get("contact"), CONTACT));
+        return cq.select(listColumns(cb, root, department)).where(finalPredicate);
+    }
+
+    private static CompoundSelection<UserListDTO> listColumns(CriteriaBuilder cb, Root<User> root, Join<User, Department> department) {
+        return cb.construct(UserListDTO.class, root.get("id"), root.get("userName"), root.get("email"),
+                root.get("address"), root.get("contact"), department.get("deptName"));
+    }
+}
@@ -3,6 +3,8 @@ package com.wcs.spring_data_jpa_project.ExceptionHandeller;
 import com.wcs.spring_data_jpa_project.customeResponse.ApiResponse;
 import com.wcs.spring_data_jpa_project.exception.*;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -29,6 +31,12 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(new ApiResponse<>("Department not found", ex.getMessage()));
     }
 
+    @ExceptionHandler(BulkJobNotFoundException.class)
+    public ResponseEntity<ApiResponse<String>> handleBulkJobNotFound(BulkJobNotFoundException ex) {
+        log.error("Bulk job not found: {}", ex.getMessage());
+        return ResponseEntity.badRequest().body(new ApiResponse<>("Bulk job not found", ex.getMessage()));
+    }
+
     @ExceptionHandler(InvalidInputException.class)
     public ResponseEntity<ApiResponse<String>> handleInvalidInput(InvalidInputException ex) {
         log.error("Invalid input: {}", ex.getMessage());
@@ -47,6 +55,14 @@ public class GlobalExceptionHandler {
         return ResponseEntity.badRequest().body(new ApiResponse<>("Duplicate resource", ex.getMessage()));
     }
 
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiResponse<String>> handleServiceBusy(ServiceBusyException ex) {
+        log.warn("Service busy: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ApiResponse<>("Service busy", ex.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<String>> handleGeneralException(Exception ex) {
         log.error("Unexpected error occurred: {}", ex.getMessage(), ex);
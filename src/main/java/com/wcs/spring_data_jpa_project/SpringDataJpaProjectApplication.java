@@ -3,9 +3,11 @@ package com.wcs.spring_data_jpa_project;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "com.wcs.spring_data_jpa_project")
 @EnableJpaAuditing
+@EnableScheduling
 public class SpringDataJpaProjectApplication {
 
 	public static void main(String[] args) {
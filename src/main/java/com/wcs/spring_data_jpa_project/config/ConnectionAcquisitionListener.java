@@ -0,0 +1,23 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import org.hibernate.SessionEventListener;
+
+// Time each Hibernate session waits for a pool connection, added to the current request's RequestDbStats.
+// Hibernate creates one instance per session (hibernate.session.events.auto, set by ObservabilityConfig).
+public class ConnectionAcquisitionListener implements SessionEventListener {
+
+    private long acquisitionStartedAt;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        acquisitionStartedAt = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        RequestDbStats stats = RequestDbStats.current();
+        if (stats != null) {
+            stats.connectionAcquireNanos += System.nanoTime() - acquisitionStartedAt;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import com.wcs.spring_data_jpa_project.model.DepartmentQueries;
+import com.wcs.spring_data_jpa_project.model.UserQueries;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.List;
+
+// Hibernate already rejects invalid named queries when it starts (hibernate.query.startup_check);
+// this also fails the boot if a name in the catalogs has no @NamedQuery behind it.
+@Component
+@Slf4j
+public class NamedQueryCatalogCheck implements SmartInitializingSingleton {
+
+    private static final List<Class<?>> CATALOGS = List.of(UserQueries.class, DepartmentQueries.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public NamedQueryCatalogCheck(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        int checked = 0;
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            for (Class<?> catalog : CATALOGS) {
+                for (Field field : catalog.getFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) && field.getType() == String.class) {
+                        // Throws IllegalArgumentException for an unknown name
+                        entityManager.createNamedQuery((String) field.get(null));
+                        checked++;
+                    }
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        log.info("Named query catalog verified: {} queries", checked);
+    }
+}
@@ -0,0 +1,64 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import com.wcs.spring_data_jpa_project.service.core.Metered;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.framework.autoproxy.AbstractBeanFactoryAwareAdvisingPostProcessor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcher;
+import org.springframework.aop.support.annotation.AnnotationClassFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Metrics beyond what Boot exports out of the box (http.server.requests, hikaricp.*, and the global
+ * hibernate.* statistics through hibernate-micrometer):
+ * <ul>
+ *     <li>service.method / service.method.errors for every public method of a @Metered service</li>
+ *     <li>per-request Hibernate statistics and pool waits, published by RequestMetricsFilter</li>
+ * </ul>
+ * Everything is tagged with the endpoint that caused it, so a slow or chatty route shows up by name
+ * under /actuator/metrics/{name}?tag=endpoint:...
+ */
+@Configuration
+public class ObservabilityConfig {
+
+    @Bean
+    static ServiceMetricsPostProcessor serviceMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new ServiceMetricsPostProcessor(new ServiceMethodMetrics(meterRegistry));
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer requestStatisticsCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATS_BUILDER, new RequestStatisticsFactory());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, ConnectionAcquisitionListener.class.getName());
+        };
+    }
+
+    // Same mechanism Spring uses for @Async / @Validated: adds the advisor to the existing (transactional)
+    // proxy, ahead of the transaction interceptor so commit time is included, or proxies the bean if it has none
+    static final class ServiceMetricsPostProcessor extends AbstractBeanFactoryAwareAdvisingPostProcessor {
+
+        ServiceMetricsPostProcessor(ServiceMethodMetrics interceptor) {
+            MethodMatcher publicMethods = new StaticMethodMatcher() {
+                @Override
+                public boolean matches(Method method, Class<?> targetClass) {
+                    return Modifier.isPublic(method.getModifiers()) && method.getDeclaringClass() != Object.class;
+                }
+            };
+            ClassFilter metered = new AnnotationClassFilter(Metered.class, true);
+            this.advisor = new DefaultPointcutAdvisor(new ComposablePointcut(metered, publicMethods), interceptor);
+            setBeforeExistingAdvisors(true);
+            setProxyTargetClass(true);
+        }
+    }
+}
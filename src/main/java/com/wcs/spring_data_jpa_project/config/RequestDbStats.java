@@ -0,0 +1,38 @@
+package com.wcs.spring_data_jpa_project.config;
+
+/**
+ * Database work done by the current HTTP request, collected on the request thread by
+ * RequestStatisticsFactory (Hibernate statistics) and ConnectionAcquisitionListener (pool waits) and
+ * published per endpoint by RequestMetricsFilter. Outside a request (scheduled jobs, bulk jobs, the
+ * outbox dispatcher) there is no current instance and nothing is collected.
+ */
+public final class RequestDbStats {
+
+    private static final ThreadLocal<RequestDbStats> CURRENT = new ThreadLocal<>();
+
+    // Only touched by the thread serving the request, so plain fields are enough
+    long statements;
+    long queries;
+    long entityLoads;
+    long entityFetches;
+    long collectionLoads;
+    long collectionFetches;
+    long connectionAcquireNanos;
+
+    private RequestDbStats() {
+    }
+
+    static RequestDbStats begin() {
+        RequestDbStats stats = new RequestDbStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static RequestDbStats current() {
+        return CURRENT.get();
+    }
+}
@@ -0,0 +1,94 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the database work of each request, tagged with its endpoint ("GET /users/getUser/{id}"):
+ * <ul>
+ *     <li>hibernate.request.statements / queries: JDBC statements prepared and HQL/SQL queries run</li>
+ *     <li>hibernate.request.entity.loads / entity.fetches, collection.loads / collection.fetches: fetches
+ *     are the separate SELECTs (lazy initialization, EAGER associations) that N+1 problems are made of</li>
+ *     <li>jdbc.request.connection.acquire: time spent waiting for Hikari connections</li>
+ * </ul>
+ * Ordered first so the security filter chain is included. Work done on another thread (the
+ * NDJSON streaming endpoints write their body after the request thread has returned) is not counted.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestMetricsFilter extends OncePerRequestFilter {
+
+    static final String NO_ENDPOINT = "none";
+
+    private final MeterRegistry registry;
+
+    public RequestMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    // Endpoint of the request being served on this thread, NO_ENDPOINT outside a request
+    public static String currentEndpoint() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return endpoint(attributes.getRequest());
+        }
+        return NO_ENDPOINT;
+    }
+
+    static String endpoint(HttpServletRequest request) {
+        // Route template rather than the raw path, so ids don't explode the tag values
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestDbStats stats = RequestDbStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDbStats.end();
+            record(endpoint(request), stats);
+        }
+    }
+
+    private void record(String endpoint, RequestDbStats stats) {
+        summary("hibernate.request.statements", "JDBC statements prepared per request", endpoint, stats.statements);
+        summary("hibernate.request.queries", "HQL / native queries executed per request", endpoint, stats.queries);
+        summary("hibernate.request.entity.loads", "Entities loaded per request", endpoint, stats.entityLoads);
+        summary("hibernate.request.entity.fetches", "Entities fetched by a separate SELECT per request", endpoint, stats.entityFetches);
+        summary("hibernate.request.collection.loads", "Collections loaded per request", endpoint, stats.collectionLoads);
+        summary("hibernate.request.collection.fetches", "Collections fetched by a separate SELECT per request", endpoint,
+                stats.collectionFetches);
+        Timer.builder("jdbc.request.connection.acquire")
+                .description("Time per request spent waiting for connections from the pool")
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(stats.connectionAcquireNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void summary(String name, String description, String endpoint, long amount) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tag("endpoint", endpoint)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(amount);
+    }
+}
@@ -0,0 +1,79 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+import org.hibernate.stat.spi.StatisticsImplementor;
+
+// Hibernate's own statistics (still exported globally as hibernate.* meters), additionally counted into the
+// current request's RequestDbStats. Installed through hibernate.stats.factory by ObservabilityConfig.
+public class RequestStatisticsFactory implements StatisticsFactory {
+
+    @Override
+    public StatisticsImplementor buildStatistics(SessionFactoryImplementor sessionFactory) {
+        return new RequestStatistics(sessionFactory);
+    }
+
+    static final class RequestStatistics extends StatisticsImpl {
+
+        RequestStatistics(SessionFactoryImplementor sessionFactory) {
+            super(sessionFactory);
+        }
+
+        @Override
+        public void prepareStatement() {
+            super.prepareStatement();
+            RequestDbStats stats = RequestDbStats.current();
+            if (stats != null) {
+                stats.statements++;
+            }
+        }
+
+        @Override
+        public void queryExecuted(String hql, int rows, long time) {
+            super.queryExecuted(hql, rows, time);
+            RequestDbStats stats = RequestDbStats.current();
+            if (stats != null) {
+                stats.queries++;
+            }
+        }
+
+        @Override
+        public void loadEntity(String entityName) {
+            super.loadEntity(entityName);
+            RequestDbStats stats = RequestDbStats.current();
+            if (stats != null) {
+                stats.entityLoads++;
+            }
+        }
+
+        // A separate SELECT for one entity (lazy proxy initialization, EAGER to-one without a join)
+        @Override
+        public void fetchEntity(String entityName) {
+            super.fetchEntity(entityName);
+            RequestDbStats stats = RequestDbStats.current();
+            if (stats != null) {
+                stats.entityFetches++;
+            }
+        }
+
+        @Override
+        public void loadCollection(String role) {
+            super.loadCollection(role);
+            RequestDbStats stats = RequestDbStats.current();
+            if (stats != null) {
+                stats.collectionLoads++;
+            }
+        }
+
+        // A separate SELECT for one collection: the N in N+1
+        @Override
+        public void fetchCollection(String role) {
+            super.fetchCollection(role);
+            RequestDbStats stats = RequestDbStats.current();
+            if (stats != null) {
+                stats.collectionFetches++;
+            }
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.wcs.spring_data_jpa_project.jwt.JwtAuthenticationFilter;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,6 +12,7 @@ import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
@@ -45,14 +47,19 @@ public class SecurityConfig {
         http
                 .cors(Customizer.withDefaults())
                 .csrf(csrf -> csrf.disable())
+                // No HTTP session: every request is authenticated from its bearer token
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Bulk onboarding is admin-only
+                        .requestMatchers("/users/register/batch").hasRole("ADMIN")
+
                         // Public Endpoints
-                        .requestMatchers("/users/register", "/users/login", "/users/search/**").permitAll()
+                        .requestMatchers("/users/register", "/users/login", "/users/search/**", "/users/email-available").permitAll()
 
                         // Role-based access control
                         .requestMatchers("/users/save", "/users/getUser/**").hasAnyRole("ADMIN", "USER")
                         .requestMatchers("/users/updateUser/**", "/users/deleteUser/**").hasRole("ADMIN")
-                        .requestMatchers("/users/assignUserToDepartment", "/users/getAllUsers").hasAnyRole("ADMIN", "USER")
+                        .requestMatchers("/users/assignUserToDepartment", "/users/getAllUsers", "/users/getAllUsers/stream").hasAnyRole("ADMIN", "USER")
                         .requestMatchers("/users/deleteByCity", "/users/filterByCityAndContact").hasRole("ADMIN")
 
                         // Admin-specific endpoints
@@ -94,7 +101,7 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 }
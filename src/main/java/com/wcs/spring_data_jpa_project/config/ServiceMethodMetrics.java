@@ -0,0 +1,69 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.concurrent.TimeUnit;
+
+// Times a @Metered service call (service.method) and counts its exceptions (service.method.errors). The
+// registry is looked up on first use: this is created with the post-processor, before the registry exists.
+public class ServiceMethodMetrics implements MethodInterceptor {
+
+    private final ObjectProvider<MeterRegistry> registryProvider;
+    private volatile MeterRegistry registry;
+
+    public ServiceMethodMetrics(ObjectProvider<MeterRegistry> registryProvider) {
+        this.registryProvider = registryProvider;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        String exception = "none";
+        try {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            record(invocation, exception, System.nanoTime() - start);
+        }
+    }
+
+    private void record(MethodInvocation invocation, String exception, long nanos) {
+        MeterRegistry registry = registry();
+        Tags tags = Tags.of(
+                "service", invocation.getMethod().getDeclaringClass().getSimpleName(),
+                "method", invocation.getMethod().getName(),
+                "endpoint", RequestMetricsFilter.currentEndpoint());
+        Timer.builder("service.method")
+                .description("Latency of public service methods")
+                .tags(tags)
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (!"none".equals(exception)) {
+            Counter.builder("service.method.errors")
+                    .description("Exceptions thrown by public service methods")
+                    .tags(tags)
+                    .tag("exception", exception)
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    private MeterRegistry registry() {
+        MeterRegistry current = registry;
+        if (current == null) {
+            current = registryProvider.getObject();
+            registry = current;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,43 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import com.wcs.spring_data_jpa_project.jwt.TokenRevocationStore;
+import com.wcs.spring_data_jpa_project.service.core.EmailOutboxDispatcher;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.web.SecurityFilterChain;
+
+import javax.sql.DataSource;
+
+/**
+ * Startup settings for the prod profile (application-prod.properties, built with -Pfast-startup).
+ * Everything is lazy there except the beans below: @Scheduled pollers only run once instantiated, and
+ * the pool, JPA and the security chain would otherwise be built by the first request.
+ */
+@Configuration
+@Slf4j
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerStartupBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(EmailOutboxDispatcher.class, TokenRevocationStore.class,
+                DataSource.class, EntityManagerFactory.class, SecurityFilterChain.class);
+    }
+
+    // The AppCDS training run (-Pfast-startup) only refreshes the context to record loaded classes and has
+    // no database; Flyway can't be switched off at runtime in an AOT build, so it skips the migrate instead
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(@Value("${app.startup.training-run:false}") boolean trainingRun) {
+        return flyway -> {
+            if (trainingRun) {
+                log.info("Training run: skipping Flyway migrate");
+                return;
+            }
+            flyway.migrate();
+        };
+    }
+}
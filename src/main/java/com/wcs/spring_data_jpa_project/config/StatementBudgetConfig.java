@@ -0,0 +1,57 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-request SQL statement budgets (app.sql.budget.*, see application.properties): the DataSource is
+ * wrapped in StatementBudgetDataSource and StatementBudgetFilter checks each request against the
+ * budget of its handler. app.sql.budget.mode=off removes both.
+ */
+@Configuration
+@ConditionalOnExpression("'${app.sql.budget.mode:warn}' != 'off'")
+public class StatementBudgetConfig {
+
+    @Bean
+    static BeanPostProcessor statementBudgetDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof StatementBudgetDataSource)) {
+                    return new StatementBudgetDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilter(MeterRegistry meterRegistry,
+                                                                        Environment environment,
+                                                                        @Value("${app.sql.budget.mode:warn}") String mode,
+                                                                        @Value("${app.sql.budget.default:20}") int defaultBudget) {
+        // Keys are Controller.method, e.g. app.sql.budget.handlers.UserController.getUserById=3
+        Map<String, Integer> handlerBudgets = Binder.get(environment)
+                .bind("app.sql.budget.handlers", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Map.of());
+        StatementBudgetFilter filter = new StatementBudgetFilter(meterRegistry,
+                StatementBudgetFilter.Mode.valueOf(mode.toUpperCase(Locale.ROOT)), defaultBudget, handlerBudgets);
+        FilterRegistrationBean<StatementBudgetFilter> registration = new FilterRegistrationBean<>(filter);
+        // Right after RequestMetricsFilter, ahead of security, so every statement of the request is counted
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+}
@@ -0,0 +1,70 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Reports every SQL statement sent through this DataSource to the current request's StatementLog, at the
+ * JDBC level so Hibernate, Spring Data and JdbcTemplate are all seen. A statement counts once when it
+ * is prepared (a JDBC batch is one statement, as in Hibernate's prepareStatementCount) and a plain
+ * Statement counts once per SQL string it executes or batches.
+ */
+public class StatementBudgetDataSource extends DelegatingDataSource {
+
+    private static final Set<String> PREPARE = Set.of("prepareStatement", "prepareCall");
+    private static final Set<String> EXECUTE = Set.of("execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "addBatch");
+
+    public StatementBudgetDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return recording(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return recording(super.getConnection(username, password));
+    }
+
+    private static Connection recording(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (PREPARE.contains(method.getName()) && args != null && args[0] instanceof String sql) {
+                        StatementLog.record(sql);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if ("createStatement".equals(method.getName())) {
+                        return recording((Statement) result);
+                    }
+                    return result;
+                });
+    }
+
+    private static Statement recording(Statement statement) {
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                (proxy, method, args) -> {
+                    if (EXECUTE.contains(method.getName()) && args != null && args[0] instanceof String sql) {
+                        StatementLog.record(sql);
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
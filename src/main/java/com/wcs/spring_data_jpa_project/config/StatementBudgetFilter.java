@@ -0,0 +1,101 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import com.wcs.spring_data_jpa_project.exception.StatementBudgetExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Checks the number of SQL statements each request sent (StatementLog, fed by StatementBudgetDataSource)
+ * against the budget of the handler that served it: app.sql.budget.handlers.{Controller}.{method}, or
+ * app.sql.budget.default. Over budget, in mode
+ * <ul>
+ *     <li>warn (production): logs the endpoint with its statements grouped by fingerprint and counts
+ *     sql.budget.exceeded{endpoint, handler}</li>
+ *     <li>fail (tests): throws StatementBudgetExceededException with the same report, so an N+1 that
+ *     sneaks into an endpoint fails the MockMvc test calling it</li>
+ * </ul>
+ */
+@Slf4j
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    public enum Mode { WARN, FAIL }
+
+    private static final int REPORTED_FINGERPRINTS = 10;
+
+    private final MeterRegistry registry;
+    private final Mode mode;
+    private final int defaultBudget;
+    private final Map<String, Integer> handlerBudgets;
+
+    public StatementBudgetFilter(MeterRegistry registry, Mode mode, int defaultBudget, Map<String, Integer> handlerBudgets) {
+        this.registry = registry;
+        this.mode = mode;
+        this.defaultBudget = defaultBudget;
+        this.handlerBudgets = Map.copyOf(handlerBudgets);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        StatementLog statements = StatementLog.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            StatementLog.end();
+        }
+        check(request, statements);
+    }
+
+    private void check(HttpServletRequest request, StatementLog statements) {
+        String handler = handler(request);
+        int budget = handlerBudgets.getOrDefault(handler, defaultBudget);
+        if (statements.count() <= budget) {
+            return;
+        }
+        String endpoint = RequestMetricsFilter.endpoint(request);
+        Counter.builder("sql.budget.exceeded")
+                .description("Requests that ran more SQL statements than their endpoint's budget")
+                .tag("endpoint", endpoint)
+                .tag("handler", handler)
+                .register(registry)
+                .increment();
+        String report = report(endpoint, handler, budget, statements);
+        if (mode == Mode.FAIL) {
+            throw new StatementBudgetExceededException(report);
+        }
+        log.warn(report);
+    }
+
+    static String handler(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod method) {
+            return method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+        }
+        return "none";
+    }
+
+    private static String report(String endpoint, String handler, int budget, StatementLog statements) {
+        StringBuilder report = new StringBuilder()
+                .append(endpoint).append(" (").append(handler).append(") ran ").append(statements.count())
+                .append(" SQL statements, budget ").append(budget).append(':');
+        int shown = 0;
+        for (Map.Entry<String, Integer> entry : statements.fingerprints().entrySet()) {
+            if (shown++ == REPORTED_FINGERPRINTS) {
+                report.append("\n  ...");
+                break;
+            }
+            report.append("\n  ").append(entry.getValue()).append(" x ").append(entry.getKey());
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * SQL statements sent by the current HTTP request, recorded by StatementBudgetDataSource on the request
+ * thread and checked against the endpoint's budget by StatementBudgetFilter. Raw SQL is kept as a count
+ * per distinct string (Hibernate's SQL is already parameterized, so this stays small); the normalizing
+ * into fingerprints only happens when a budget is exceeded.
+ */
+public final class StatementLog {
+
+    private static final ThreadLocal<StatementLog> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, Integer> countsBySql = new HashMap<>();
+    private int count;
+
+    private StatementLog() {
+    }
+
+    static StatementLog begin() {
+        StatementLog log = new StatementLog();
+        CURRENT.set(log);
+        return log;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    // Called for every statement on every thread; a no-op outside a request
+    static void record(String sql) {
+        StatementLog log = CURRENT.get();
+        if (log != null) {
+            log.count++;
+            log.countsBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    // Statements grouped by fingerprint, most frequent first
+    Map<String, Integer> fingerprints() {
+        Map<String, Integer> counts = new HashMap<>();
+        countsBySql.forEach((sql, n) -> counts.merge(fingerprint(sql), n, Integer::sum));
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey()))
+                .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+
+    // Literals and IN-list lengths replaced, whitespace collapsed: one fingerprint per statement shape
+    static String fingerprint(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql.strip()).replaceAll("?");
+        normalized = NUMBER.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?+)");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ");
+        return normalized.toLowerCase(Locale.ROOT);
+    }
+}
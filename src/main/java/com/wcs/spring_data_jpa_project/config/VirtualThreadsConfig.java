@@ -0,0 +1,67 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Extras for the opt-in virtual-thread mode (spring.threads.virtual.enabled=true, see
+ * application-virtual-threads.properties). Tomcat no longer caps concurrency at its thread count, so
+ * JDBC work is capped at the pool size by PermitLimitedDataSource, and pinning is reported.
+ * bcrypt already runs on its own bounded pool (PasswordHashingService) and mail is sent by the outbox
+ * dispatcher, so neither needs a limit here.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadsConfig {
+
+    @Bean
+    static BeanPostProcessor permitLimitedDataSourcePostProcessor(
+            @Value("${app.jdbc.permits.acquire-timeout-ms:30000}") long acquireTimeoutMs) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // The pool may already be wrapped (StatementBudgetDataSource), depending on post-processor order
+                if (bean instanceof DataSource dataSource && !(bean instanceof PermitLimitedDataSource)) {
+                    try {
+                        if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                            int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                            return new PermitLimitedDataSource(dataSource, poolSize, acquireTimeoutMs);
+                        }
+                    } catch (SQLException e) {
+                        throw new IllegalStateException("Cannot reach the Hikari pool behind " + beanName, e);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder jdbcPermitMetrics(DataSource dataSource) {
+        return registry -> {
+            try {
+                if (dataSource.isWrapperFor(PermitLimitedDataSource.class)) {
+                    dataSource.unwrap(PermitLimitedDataSource.class).bindTo(registry);
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Cannot reach the JDBC permit limiter", e);
+            }
+        };
+    }
+
+    @Bean(destroyMethod = "close")
+    VirtualThreadPinningMonitor virtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                                            @Value("${app.virtual-threads.pinned-threshold-ms:20}") long thresholdMs) {
+        return new VirtualThreadPinningMonitor(meterRegistry, thresholdMs);
+    }
+}
@@ -1,6 +1,7 @@
 package com.wcs.spring_data_jpa_project.controller;
 
 import com.wcs.spring_data_jpa_project.customeResponse.ApiResponse;
+import com.wcs.spring_data_jpa_project.dto.CursorPage;
 import com.wcs.spring_data_jpa_project.model.Department;
 import com.wcs.spring_data_jpa_project.service.core.DepartmentService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -95,6 +96,24 @@ public class DepartmentController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/pagination/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<Department>>> getDepartmentsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int pageSize) {
+        CursorPage<Department> page = departmentService.getDepartmentsPaginatedByCursor(cursor, pageSize);
+        ApiResponse<CursorPage<Department>> response = new ApiResponse<>("Departments fetched successfully", page);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/sort/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<Department>>> getDepartmentsSortedByNameAscByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int pageSize) {
+        CursorPage<Department> page = departmentService.getDepartmentsSortedByNameAscByCursor(cursor, pageSize);
+        ApiResponse<CursorPage<Department>> response = new ApiResponse<>("Departments sorted by name", page);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/update-name")
     public ResponseEntity<ApiResponse<String>> updateDepartmentName(
             @RequestParam Long id,
@@ -1,23 +1,36 @@
 package com.wcs.spring_data_jpa_project.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wcs.spring_data_jpa_project.customeResponse.ApiResponse;
+import com.wcs.spring_data_jpa_project.dto.BatchRegistrationResult;
+import com.wcs.spring_data_jpa_project.dto.CursorPage;
+import com.wcs.spring_data_jpa_project.dto.EmailDomainCountDTO;
 import com.wcs.spring_data_jpa_project.dto.LoginRequest;
 import com.wcs.spring_data_jpa_project.dto.RegisterRequest;
 import com.wcs.spring_data_jpa_project.dto.UserDeptDTO;
+import com.wcs.spring_data_jpa_project.dto.UserListDTO;
 import com.wcs.spring_data_jpa_project.dto.UserSummaryDTO;
 import com.wcs.spring_data_jpa_project.exception.InvalidCredentialsException;
 import com.wcs.spring_data_jpa_project.exception.InvalidInputException;
+import com.wcs.spring_data_jpa_project.model.BulkUserJob;
 import com.wcs.spring_data_jpa_project.model.User;
+import com.wcs.spring_data_jpa_project.service.core.BulkUserJobService;
 import com.wcs.spring_data_jpa_project.service.core.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -29,6 +42,14 @@ public class UserController {
     @Autowired
     private final UserService userService;
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BulkUserJobService bulkUserJobService;
+
     @Autowired
     public UserController(UserService userService) {
         this.userService = userService;
@@ -48,6 +69,20 @@ public class UserController {
         }
     }
 
+    @Operation(summary = "Bulk User Registration", description = "Register many users at once; returns one result per input row.")
+    @PostMapping("/register/batch")
+    public ResponseEntity<ApiResponse<List<BatchRegistrationResult>>> registerUsersBatch(@RequestBody List<RegisterRequest> requests) {
+        log.info("Batch registration request with {} users", requests == null ? 0 : requests.size());
+        List<BatchRegistrationResult> results = userService.registerUsersBatch(requests);
+        return ResponseEntity.ok(new ApiResponse<>("Batch registration processed", results));
+    }
+
+    @GetMapping("/email-available")
+    public ResponseEntity<ApiResponse<Boolean>> isEmailAvailable(@RequestParam String email) {
+        boolean available = userService.isEmailAvailable(email);
+        return ResponseEntity.ok(new ApiResponse<>(available ? "Email is available" : "Email already registered", available));
+    }
+
     @Operation(summary = "User Login", description = "Authenticate user using email and password.")
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Login successful")
     @PostMapping("/login")
@@ -62,15 +97,39 @@ public class UserController {
 
 
     @GetMapping("/search")
-    public ResponseEntity<List<User>> dynamicSearch(@RequestParam String keyword) {
+    public ResponseEntity<List<User>> dynamicSearch(@RequestParam String keyword,
+                                                    @RequestParam(defaultValue = "1") int page,
+                                                    @RequestParam(defaultValue = "20") int size) {
         try {
-            // Call service to perform dynamic search based on the keyword
-            List<User> users = userService.dynamicSearch(keyword);
+            // Ranked full-text search over name, email and address
+            List<User> users = userService.searchUsers(keyword, page, size);
             return new ResponseEntity<>(users, HttpStatus.OK);
         } catch (Exception ex) {
             return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST); // You can customize the exception handling as per your project needs
         }
     }
+    @Operation(summary = "User Logout", description = "Revoke the bearer token used for this request.")
+    @PostMapping("/logout")
+    public ResponseEntity<ApiResponse<String>> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+        String token = authorization.startsWith("Bearer ") ? authorization.substring(7) : null;
+        userService.logout(token);
+        return ResponseEntity.ok(new ApiResponse<>("Logout successful", null));
+    }
+
+    @PostMapping("/admin/search/reindex")
+    public ResponseEntity<ApiResponse<Long>> rebuildSearchIndex() {
+        log.info("Rebuilding user search index");
+        long indexed = userService.rebuildSearchIndex();
+        return ResponseEntity.ok(new ApiResponse<>("Search index rebuilt", indexed));
+    }
+
+    @PostMapping("/admin/email-domains/rebuild")
+    public ResponseEntity<ApiResponse<Long>> rebuildEmailDomainCounts() {
+        log.info("Rebuilding email domain counters");
+        long domains = userService.rebuildEmailDomainCounts();
+        return ResponseEntity.ok(new ApiResponse<>("Email domain counters rebuilt", domains));
+    }
+
     @PostMapping("/save")
     public ResponseEntity<ApiResponse<User>> createUser(@Valid @RequestBody User user) {
         log.info("Creating new user: {}", user.getUserName());
@@ -140,16 +199,42 @@ public class UserController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    // NDJSON export: one user per line, written while the rows are still being read from the DB
+    @GetMapping(value = "/getAllUsers/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        log.info("Streaming all users");
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> userService.streamAllUsers(user -> writeLine(out, user)));
+    }
+
+    @GetMapping(value = "/native/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamUsersNative() {
+        log.info("Streaming users using native SQL");
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> userService.streamUsersNative(user -> writeLine(out, user)));
+    }
+
+    private void writeLine(OutputStream out, User user) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(user));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @GetMapping("/city/{city}")
-    public ResponseEntity<ApiResponse<List<User>>> getUsersByCity(@PathVariable String city) {
+    public ResponseEntity<ApiResponse<List<UserListDTO>>> getUsersByCity(@PathVariable String city) {
         log.info("Fetching users from city: {}", city);
-        List<User> users = userService.getUsersByCity(city);
+        List<UserListDTO> users = userService.getUsersByCity(city);
         if (!users.isEmpty()) {
-            ApiResponse<List<User>> response = new ApiResponse<>("Users fetched by city", users);
+            ApiResponse<List<UserListDTO>> response = new ApiResponse<>("Users fetched by city", users);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } else {
             log.warn("No users found in city: {}", city);
-            ApiResponse<List<User>> response = new ApiResponse<>("No users found in city: " + city, null);
+            ApiResponse<List<UserListDTO>> response = new ApiResponse<>("No users found in city: " + city, null);
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
     }
@@ -162,6 +247,13 @@ public class UserController {
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+    @GetMapping("/email-domains/top")
+    public ResponseEntity<ApiResponse<List<EmailDomainCountDTO>>> getTopEmailDomains(@RequestParam(defaultValue = "10") int limit) {
+        log.info("Fetching top {} email domains", limit);
+        List<EmailDomainCountDTO> domains = userService.getTopEmailDomains(limit);
+        return ResponseEntity.ok(new ApiResponse<>("Top email domains fetched", domains));
+    }
+
     @GetMapping("/native")
     public ResponseEntity<ApiResponse<List<User>>> getUsersNative() {
         log.info("Fetching users using native SQL");
@@ -171,104 +263,128 @@ public class UserController {
     }
 
     @GetMapping("/getUserByCity/{city}")
-    public ResponseEntity<ApiResponse<List<User>>> getUserByCitySorted(@PathVariable String city) {
+    public ResponseEntity<ApiResponse<List<UserListDTO>>> getUserByCitySorted(@PathVariable String city) {
         log.info("Fetching sorted users from city: {}", city);
-        List<User> listUser = userService.getUsersByCitySorted(city);
+        List<UserListDTO> listUser = userService.getUsersByCitySorted(city);
         if (!listUser.isEmpty()) {
-            ApiResponse<List<User>> response = new ApiResponse<>("The list of the user :" + city, listUser);
+            ApiResponse<List<UserListDTO>> response = new ApiResponse<>("The list of the user :" + city, listUser);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } else {
-            ApiResponse<List<User>> response = new ApiResponse<>("There is no any user from :" + city, listUser);
+            ApiResponse<List<UserListDTO>> response = new ApiResponse<>("There is no any user from :" + city, listUser);
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
     }
 
+    // City-wide changes run as chunked background jobs; poll /users/admin/jobs/{id} for progress
     @PutMapping("/updateEmailByCity")
-    public ResponseEntity<String> updateEmailsByCity(@RequestParam String city, @RequestParam String newEmail) {
-        log.info("Updating emails to {} for users in city: {}", newEmail, city);
-        int updatedCount = userService.updateEmailsByCity(city, newEmail);
-        if (updatedCount > 0) {
-            return ResponseEntity.ok(updatedCount + " users' emails updated successfully.");
-        } else {
-            log.warn("No users found in city: {}", city);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No users found in city: " + city);
-        }
+    public ResponseEntity<ApiResponse<BulkUserJob>> updateEmailsByCity(@RequestParam String city, @RequestParam String newEmail) {
+        log.info("Queueing email update to {} for users in city: {}", newEmail, city);
+        BulkUserJob job = bulkUserJobService.submitEmailUpdate(city, newEmail);
+        return ResponseEntity.accepted().body(new ApiResponse<>("Email update job queued", job));
     }
 
     @DeleteMapping("/deleteByCity")
-    public ResponseEntity<String> deleteUsersByCity(@RequestParam String city) {
-        log.info("Deleting users from city: {}", city);
-        int deletedCount = userService.deleteUsersByCity(city);
-        if (deletedCount > 0) {
-            return ResponseEntity.ok(deletedCount + " users deleted from city: " + city);
-        } else {
-            log.warn("No users found in city: {} for deletion", city);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("No users found in city: " + city);
-        }
+    public ResponseEntity<ApiResponse<BulkUserJob>> deleteUsersByCity(@RequestParam String city) {
+        log.info("Queueing delete of users from city: {}", city);
+        BulkUserJob job = bulkUserJobService.submitDelete(city);
+        return ResponseEntity.accepted().body(new ApiResponse<>("Delete job queued", job));
+    }
+
+    @GetMapping("/admin/jobs/{id}")
+    public ResponseEntity<ApiResponse<BulkUserJob>> getBulkJob(@PathVariable Long id) {
+        BulkUserJob job = bulkUserJobService.getJob(id);
+        return ResponseEntity.ok(new ApiResponse<>("Job status: " + job.getStatus(), job));
     }
 
     @GetMapping("/filterByCityAndContact")
-    public ResponseEntity<ApiResponse<List<User>>> getFilteredUsers(@RequestParam String city, @RequestParam String contact) {
+    public ResponseEntity<ApiResponse<List<UserListDTO>>> getFilteredUsers(@RequestParam String city, @RequestParam String contact) {
         log.info("Filtering users by city: {} and contact: {}", city, contact);
-        List<User> users = userService.getFilteredUsers(city, contact);
+        List<UserListDTO> users = userService.getFilteredUsers(city, contact);
         if (!users.isEmpty()) {
-            ApiResponse<List<User>> response = new ApiResponse<>("User list to given filter condition " + city, users);
+            ApiResponse<List<UserListDTO>> response = new ApiResponse<>("User list to given filter condition " + city, users);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } else {
-            ApiResponse<List<User>> response = new ApiResponse<>("Using this filter condition there is not any user found", users);
+            ApiResponse<List<UserListDTO>> response = new ApiResponse<>("Using this filter condition there is not any user found", users);
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
     }
 
     @GetMapping("/getUserSortedByNameAsc")
-    public ResponseEntity<ApiResponse<List<User>>> getUsersSortedByNameAsc() {
+    public ResponseEntity<ApiResponse<List<UserListDTO>>> getUsersSortedByNameAsc() {
         log.info("Fetching users sorted by name ascending");
-        List<User> users = userService.getUsersSortedByNameAsc();
+        List<UserListDTO> users = userService.getUsersSortedByNameAsc();
         if (!users.isEmpty()) {
-            ApiResponse<List<User>> response = new ApiResponse<>("The list of the user", users);
+            ApiResponse<List<UserListDTO>> response = new ApiResponse<>("The list of the user", users);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } else {
-            ApiResponse<List<User>> response = new ApiResponse<>("There is not any user", users);
+            ApiResponse<List<UserListDTO>> response = new ApiResponse<>("There is not any user", users);
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
     }
 
     @GetMapping("/getUsersSortedByEmailDesc")
-    public ResponseEntity<ApiResponse<List<User>>> getUsersSortedByEmailDesc() {
+    public ResponseEntity<ApiResponse<List<UserListDTO>>> getUsersSortedByEmailDesc() {
         log.info("Fetching users sorted by email descending");
-        List<User> users = userService.getUsersSortedByEmailDesc();
+        List<UserListDTO> users = userService.getUsersSortedByEmailDesc();
         if (!users.isEmpty()) {
-            ApiResponse<List<User>> response = new ApiResponse<>("List of the users", users);
+            ApiResponse<List<UserListDTO>> response = new ApiResponse<>("List of the users", users);
             return new ResponseEntity<>(response, HttpStatus.OK);
         } else {
-            ApiResponse<List<User>> response = new ApiResponse<>("There is not any users", users);
+            ApiResponse<List<UserListDTO>> response = new ApiResponse<>("There is not any users", users);
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
     }
 
     @GetMapping("/paginated")
-    public ResponseEntity<List<User>> getSortedPaginatedUsers(
+    public ResponseEntity<List<UserListDTO>> getSortedPaginatedUsers(
             @RequestParam int page,
             @RequestParam int size) {
         log.info("Fetching paginated users - page: {}, size: {}", page, size);
-        List<User> users = userService.getUsersPaginated(page, size);
+        List<UserListDTO> users = userService.getUsersPaginated(page, size);
         return ResponseEntity.ok(users);
     }
 
+    @GetMapping("/paginated/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<UserListDTO>>> getUsersByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("Fetching users by cursor - size: {}", size);
+        CursorPage<UserListDTO> page = userService.getUsersPaginatedByCursor(cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>("Users fetched successfully", page));
+    }
+
+    @GetMapping("/getUserSortedByNameAsc/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<UserListDTO>>> getUsersSortedByNameAscByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("Fetching users sorted by name ascending by cursor - size: {}", size);
+        CursorPage<UserListDTO> page = userService.getUsersSortedByNameAscByCursor(cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>("The list of the user", page));
+    }
+
+    @GetMapping("/getUsersSortedByEmailDesc/cursor")
+    public ResponseEntity<ApiResponse<CursorPage<UserListDTO>>> getUsersSortedByEmailDescByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        log.info("Fetching users sorted by email descending by cursor - size: {}", size);
+        CursorPage<UserListDTO> page = userService.getUsersSortedByEmailDescByCursor(cursor, size);
+        return ResponseEntity.ok(new ApiResponse<>("List of the users", page));
+    }
+
     @GetMapping("/with-department")
-    public ResponseEntity<List<User>> getUsersWithDepartments() {
+    public ResponseEntity<List<UserListDTO>> getUsersWithDepartments() {
         log.info("Fetching users with departments");
         return new ResponseEntity<>(userService.getUsersWithDepartments(), HttpStatus.OK);
     }
 
     @GetMapping("/by-department/{name}")
-    public ResponseEntity<List<User>> getUsersByDepartmentName(@PathVariable String name) {
+    public ResponseEntity<List<UserListDTO>> getUsersByDepartmentName(@PathVariable String name) {
         log.info("Fetching users from department: {}", name);
         return new ResponseEntity<>(userService.getUsersByDepartmentName(name), HttpStatus.OK);
     }
 
     @GetMapping("/sorted-by-department")
-    public ResponseEntity<List<User>> getUsersSortedByDepartmentName() {
+    public ResponseEntity<List<UserListDTO>> getUsersSortedByDepartmentName() {
         log.info("Fetching users sorted by department name");
         return new ResponseEntity<>(userService.getUsersSortedByDepartmentName(), HttpStatus.OK);
     }
@@ -0,0 +1,32 @@
+package com.wcs.spring_data_jpa_project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Outcome of one row of /users/register/batch; index is the row's position in the request
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchRegistrationResult {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID
+    }
+
+    private int index;
+    private String email;
+    private Status status;
+    private Long userId;
+    private String message;
+
+    public static BatchRegistrationResult created(int index, String email, Long userId) {
+        return new BatchRegistrationResult(index, email, Status.CREATED, userId, null);
+    }
+
+    public static BatchRegistrationResult rejected(int index, String email, Status status, String message) {
+        return new BatchRegistrationResult(index, email, status, null, message);
+    }
+}
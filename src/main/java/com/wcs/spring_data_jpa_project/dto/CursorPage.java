@@ -0,0 +1,16 @@
+package com.wcs.spring_data_jpa_project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// One page of a keyset (seek) listing. Pass nextCursor back to get the following page, null means last page.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private String nextCursor;
+}
@@ -0,0 +1,4 @@
+package com.wcs.spring_data_jpa_project.dto;
+
+public record EmailDomainCountDTO(String domain, long userCount) {
+}
@@ -0,0 +1,5 @@
+package com.wcs.spring_data_jpa_project.dto;
+
+// Row of the user list endpoints: only these columns are selected, no User entity is loaded or serialized
+public record UserListDTO(Long id, String userName, String email, String address, String contact, String deptName) {
+}
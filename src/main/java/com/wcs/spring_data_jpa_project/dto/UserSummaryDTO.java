@@ -1,10 +1,5 @@
 package com.wcs.spring_data_jpa_project.dto;
 
-
-public interface UserSummaryDTO {
-    String getUserName();
-    String getEmail();
-    String getContact();
-
-    
+// Built directly by the summary queries (SELECT new ...UserSummaryDTO(...)), so it has to be a concrete type
+public record UserSummaryDTO(String userName, String email, String contact) {
 }
@@ -0,0 +1,7 @@
+package com.wcs.spring_data_jpa_project.exception;
+
+public class BulkJobNotFoundException extends RuntimeException {
+    public BulkJobNotFoundException(String message) {
+        super(message);
+    }
+}
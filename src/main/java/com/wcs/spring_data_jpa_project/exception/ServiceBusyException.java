@@ -0,0 +1,7 @@
+package com.wcs.spring_data_jpa_project.exception;
+
+public class ServiceBusyException extends RuntimeException {
+    public ServiceBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.wcs.spring_data_jpa_project.exception;
+
+// Thrown by StatementBudgetFilter in fail mode (tests) when a request ran more SQL statements than its budget
+public class StatementBudgetExceededException extends RuntimeException {
+    public StatementBudgetExceededException(String message) {
+        super(message);
+    }
+}
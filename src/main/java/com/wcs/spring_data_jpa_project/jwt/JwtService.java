@@ -2,42 +2,91 @@ package com.wcs.spring_data_jpa_project.jwt;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtService {
 
+    public static final String ROLES_CLAIM = "roles";
+
     private final Key secretKey;
 
+    // Built once; JwtParser is immutable and thread-safe
+    private final JwtParser parser;
+
+    private final VerifiedTokenCache verifiedTokens;
+
+    // Kept short: roles travel inside the token, so a role change takes effect when the token expires
+    private final long tokenTtlMs;
+
+    private final TokenRevocationStore revocationStore;
+
     // ✅ Read and validate key from application.properties
-    public JwtService(@Value("${jwt.secret}") String secret) {
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.cache.max-entries:10000}") int cacheMaxEntries,
+                      @Value("${jwt.access-token.ttl-ms:900000}") long tokenTtlMs,
+                      MeterRegistry meterRegistry,
+                      TokenRevocationStore revocationStore) {
         if (secret.length() < 32) {
             throw new IllegalArgumentException("JWT secret must be at least 32 characters for HS256.");
         }
         this.secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+        this.verifiedTokens = new VerifiedTokenCache(cacheMaxEntries, meterRegistry);
+        this.tokenTtlMs = tokenTtlMs;
+        this.revocationStore = revocationStore;
     }
 
     // ✅ Generate JWT Token
     public String generateToken(String username) {
+        return generateToken(username, List.of());
+    }
+
+    // ✅ Generate JWT Token carrying the user's roles, so requests can be authorized without a DB lookup
+    public String generateToken(String username, Collection<String> roles) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
-                .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60)) // 1 hour
+                .claim(ROLES_CLAIM, List.copyOf(roles))
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + tokenTtlMs))
                 .signWith(secretKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // ✅ Authorities from the roles claim ("ADMIN" and "ROLE_ADMIN" both become ROLE_ADMIN)
+    public List<SimpleGrantedAuthority> extractAuthorities(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> names)) {
+            return List.of();
+        }
+        return names.stream()
+                .map(String::valueOf)
+                .map(name -> name.startsWith("ROLE_") ? name : "ROLE_" + name)
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+    }
+
     // ✅ Validate token and match username
     public boolean validateToken(String token, String username) {
         try {
-            String extractedUsername = extractUsername(token);
-            return extractedUsername.equals(username) && !isTokenExpired(token);
+            Claims claims = extractAllClaims(token);
+            return claims.getSubject().equals(username) && !claims.getExpiration().before(new Date());
         } catch (JwtException | IllegalArgumentException e) {
             // 🔒 Log the exception if needed
             return false;
@@ -60,11 +109,31 @@ public class JwtService {
 
     // ✅ Generic claim extractor
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claimsResolver.apply(claims);
+        return claimsResolver.apply(extractAllClaims(token));
+    }
+
+    // Verified claims; a repeat of a token seen before skips decoding, JSON parsing and the HMAC check
+    public Claims extractAllClaims(String token) {
+        Claims claims = verifiedTokens.get(token);
+        if (claims == null) {
+            claims = parser.parseClaimsJws(token).getBody();
+            verifiedTokens.put(token, claims);
+        }
+        // Checked on every call (also for cached tokens): revocation can happen after the token was cached
+        if (revocationStore.isRevoked(claims.getId(), claims.getExpiration(), claims.getSubject(), claims.getIssuedAt())) {
+            throw new JwtException("Token has been revoked");
+        }
+        return claims;
+    }
+
+    // ✅ Logout: reject this token from now on
+    public void revokeToken(String token) {
+        Claims claims = extractAllClaims(token);
+        revocationStore.revokeToken(claims.getId(), claims.getExpiration());
+    }
+
+    // ✅ Password change / deletion: reject every token already issued to this user
+    public void revokeAllTokens(String username) {
+        revocationStore.revokeAllForSubject(username);
     }
 }
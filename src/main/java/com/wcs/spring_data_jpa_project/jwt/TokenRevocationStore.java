@@ -0,0 +1,186 @@
+package com.wcs.spring_data_jpa_project.jwt;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory JWT revocation list, so logout / password change / user deletion can kill outstanding
+ * tokens without a DB check per request.
+ * <p>
+ * Two kinds of entries:
+ * <ul>
+ *     <li>revoked token ids (jti), grouped in buckets by the token's expiry; once a bucket's time has
+ *     passed every token in it is expired anyway, so the whole bucket is dropped at once</li>
+ *     <li>a per-user "not before" time: tokens for that subject issued before it are rejected</li>
+ * </ul>
+ * Reads only touch concurrent maps (no locks). Every change is also appended to a local file that is
+ * replayed (and compacted) on startup, so revocations survive a restart.
+ */
+@Component
+@Slf4j
+public class TokenRevocationStore {
+
+    private final long bucketMs;
+    private final long maxTokenTtlMs;
+    private final Path file;
+
+    private final ConcurrentSkipListMap<Long, Set<String>> revokedByExpiryBucket = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Long> notBeforeBySubject = new ConcurrentHashMap<>();
+    // A lock rather than synchronized: appends do file I/O on request threads, possibly virtual ones
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private BufferedWriter writer;
+
+    public TokenRevocationStore(@Value("${jwt.revocation.file:./data/token-revocations.log}") String file,
+                                @Value("${jwt.revocation.bucket-ms:60000}") long bucketMs,
+                                @Value("${jwt.access-token.ttl-ms:900000}") long maxTokenTtlMs) throws IOException {
+        this.bucketMs = bucketMs;
+        this.maxTokenTtlMs = maxTokenTtlMs;
+        this.file = Path.of(file);
+        if (this.file.getParent() != null) {
+            Files.createDirectories(this.file.getParent());
+        }
+        replay();
+        compact();
+    }
+
+    public boolean isRevoked(String tokenId, Date expiration, String subject, Date issuedAt) {
+        if (tokenId != null && expiration != null) {
+            Set<String> bucket = revokedByExpiryBucket.get(bucketOf(expiration.getTime()));
+            if (bucket != null && bucket.contains(tokenId)) {
+                return true;
+            }
+        }
+        if (subject != null && issuedAt != null) {
+            Long notBefore = notBeforeBySubject.get(subject);
+            return notBefore != null && issuedAt.getTime() < notBefore;
+        }
+        return false;
+    }
+
+    public void revokeToken(String tokenId, Date expiration) {
+        if (tokenId == null || expiration == null || expiration.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        addToken(tokenId, expiration.getTime());
+        append("J " + tokenId + " " + expiration.getTime());
+    }
+
+    // Reject every token of this subject issued up to now. iat has second precision, so the cut-off is
+    // rounded up to the next second: a token issued earlier in this second (e.g. just before a password
+    // change) is rejected too, at the cost of also rejecting a re-login within the same second.
+    public void revokeAllForSubject(String subject) {
+        if (subject == null) {
+            return;
+        }
+        long notBefore = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        notBeforeBySubject.merge(subject, notBefore, Math::max);
+        append("U " + subject + " " + notBefore);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.bucket-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        // Buckets whose whole window is in the past only hold expired tokens
+        revokedByExpiryBucket.headMap(bucketOf(now)).clear();
+        notBeforeBySubject.values().removeIf(notBefore -> notBefore + maxTokenTtlMs < now);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void addToken(String tokenId, long expiresAt) {
+        revokedByExpiryBucket.computeIfAbsent(bucketOf(expiresAt), b -> ConcurrentHashMap.newKeySet()).add(tokenId);
+    }
+
+    private long bucketOf(long epochMillis) {
+        return epochMillis / bucketMs;
+    }
+
+    private void append(String line) {
+        writeLock.lock();
+        try {
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            log.error("Failed to persist token revocation: {}", e.getMessage(), e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void replay() throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            if (parts.length != 3) {
+                continue;
+            }
+            long time = Long.parseLong(parts[2]);
+            if ("J".equals(parts[0]) && bucketOf(time) >= bucketOf(now)) {
+                addToken(parts[1], time);
+            } else if ("U".equals(parts[0]) && time + maxTokenTtlMs > now) {
+                notBeforeBySubject.merge(parts[1], time, Math::max);
+            }
+        }
+        log.info("Loaded {} token revocation entries from {}", lines.size(), file);
+    }
+
+    // Rewrite the log with only the live entries, then keep appending to it
+    private void compact() {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<Long, Set<String>> bucket : revokedByExpiryBucket.entrySet()) {
+                    // Start of the bucket maps back to the same bucket on replay
+                    long bucketStart = bucket.getKey() * bucketMs;
+                    for (String tokenId : bucket.getValue()) {
+                        out.write("J " + tokenId + " " + bucketStart);
+                        out.newLine();
+                    }
+                }
+                for (Map.Entry<String, Long> entry : notBeforeBySubject.entrySet()) {
+                    out.write("U " + entry.getKey() + " " + entry.getValue());
+                    out.newLine();
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open token revocation log " + file, e);
+        }
+    }
+}
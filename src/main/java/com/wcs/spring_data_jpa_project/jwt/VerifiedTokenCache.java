@@ -0,0 +1,100 @@
+package com.wcs.spring_data_jpa_project.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of tokens that already passed signature verification. Keyed by the SHA-256 of the
+ * token (so raw bearer tokens are not kept in memory) and only trusted until the token's own exp.
+ * Every authenticated request reads it, so it is a Caffeine cache: reads take no lock, unlike an
+ * access-ordered LinkedHashMap where each get reorders the map under one monitor.
+ */
+class VerifiedTokenCache {
+
+    // Each entry lives until its token's exp; reads and overwrites don't extend it
+    private static final Expiry<String, Claims> UNTIL_TOKEN_EXPIRY = new Expiry<>() {
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    };
+
+    private final Cache<String, Claims> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    VerifiedTokenCache(int maxEntries, MeterRegistry meterRegistry) {
+        this.hits = Counter.builder("jwt.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("jwt.cache.requests").tag("result", "miss").register(meterRegistry);
+        Counter evictions = Counter.builder("jwt.cache.evictions").register(meterRegistry);
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(UNTIL_TOKEN_EXPIRY)
+                .evictionListener((String key, Claims claims, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+        Gauge.builder("jwt.cache.size", this, VerifiedTokenCache::size).register(meterRegistry);
+    }
+
+    // Claims of a previously verified, still unexpired token, or null
+    Claims get(String token) {
+        Claims claims = entries.getIfPresent(digest(token));
+        if (claims != null) {
+            hits.increment();
+            return claims;
+        }
+        misses.increment();
+        return null;
+    }
+
+    void put(String token, Claims claims) {
+        if (claims.getExpiration() == null) {
+            return;
+        }
+        entries.put(digest(token), claims);
+    }
+
+    long size() {
+        return entries.estimatedSize();
+    }
+
+    // Runs pending evictions now; Caffeine otherwise does them in the background
+    void cleanUp() {
+        entries.cleanUp();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.wcs.spring_data_jpa_project.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * User.email_domain and the email_domain_count table (see EmailDomainCounter). Databases that ran under
+ * ddl-auto=update may already have the column, index and table, so each one is created only if missing.
+ * Existing users are backfilled in LIMIT-ed batches, each committed on its own (the migration runs
+ * outside a transaction), and the counters are then recounted from the filled column.
+ */
+@Slf4j
+public class V2__Email_domain_counts extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+
+        if (!exists(jdbc, "SELECT COUNT(*) FROM information_schema.columns "
+                + "WHERE table_schema = DATABASE() AND table_name = 'user' AND column_name = 'email_domain'")) {
+            jdbc.execute("ALTER TABLE user ADD COLUMN email_domain VARCHAR(255)");
+        }
+        if (!exists(jdbc, "SELECT COUNT(*) FROM information_schema.statistics "
+                + "WHERE table_schema = DATABASE() AND table_name = 'user' AND index_name = 'idx_user_email_domain'")) {
+            jdbc.execute("CREATE INDEX idx_user_email_domain ON user (email_domain)");
+        }
+        jdbc.execute("CREATE TABLE IF NOT EXISTS email_domain_count ("
+                + "domain VARCHAR(255) NOT NULL, "
+                + "slot INTEGER NOT NULL, "
+                + "user_count BIGINT NOT NULL, "
+                + "PRIMARY KEY (domain, slot)"
+                + ") ENGINE = InnoDB");
+
+        // Same derivation as User.domainOf; '%@_%' skips emails without a domain so the loop ends
+        long filled = 0;
+        int updated;
+        do {
+            updated = jdbc.update("UPDATE user SET email_domain = LOWER(TRIM(SUBSTRING_INDEX(email, '@', -1))) "
+                    + "WHERE email_domain IS NULL AND email LIKE '%@_%' LIMIT " + BATCH_SIZE);
+            filled += updated;
+        } while (updated > 0);
+
+        jdbc.update("DELETE FROM email_domain_count");
+        int domains = jdbc.update("INSERT INTO email_domain_count (domain, slot, user_count) "
+                + "SELECT email_domain, 0, COUNT(*) FROM user WHERE email_domain IS NOT NULL GROUP BY email_domain");
+        log.info("Backfilled email_domain for {} users, counted {} domains", filled, domains);
+    }
+
+    private boolean exists(JdbcTemplate jdbc, String countSql) {
+        Integer count = jdbc.queryForObject(countSql, Integer.class);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,50 @@
+package com.wcs.spring_data_jpa_project.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.List;
+
+/**
+ * uk_user_email on databases whose user table predates V1: CREATE TABLE IF NOT EXISTS left their table
+ * as it was, and ddl-auto=validate does not check unique keys. UserService.registerUser relies on the
+ * key to reject duplicate emails, so it is added here when missing. Existing duplicates would make the
+ * ALTER fail halfway through a long table copy, so they are looked for first and reported instead.
+ */
+@Slf4j
+public class V5__User_email_unique_key extends BaseJavaMigration {
+
+    private static final int REPORTED_DUPLICATES = 10;
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) {
+        JdbcTemplate jdbc = new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+
+        Integer existing = jdbc.queryForObject("SELECT COUNT(*) FROM information_schema.statistics "
+                + "WHERE table_schema = DATABASE() AND table_name = 'user' AND index_name = 'uk_user_email'", Integer.class);
+        if (existing != null && existing > 0) {
+            return;
+        }
+
+        List<String> duplicates = jdbc.queryForList("SELECT CONCAT(email, ' (', COUNT(*), ' users)') FROM user "
+                + "WHERE email IS NOT NULL GROUP BY email HAVING COUNT(*) > 1 ORDER BY COUNT(*) DESC, email "
+                + "LIMIT " + REPORTED_DUPLICATES, String.class);
+        if (!duplicates.isEmpty()) {
+            throw new FlywayException("Cannot add unique key uk_user_email: user.email has duplicates. "
+                    + "Merge or change these users and restart: " + String.join(", ", duplicates)
+                    + (duplicates.size() == REPORTED_DUPLICATES ? ", ..." : ""));
+        }
+
+        jdbc.execute("ALTER TABLE user ADD CONSTRAINT uk_user_email UNIQUE (email)");
+        log.info("Added unique key uk_user_email on user.email");
+    }
+}
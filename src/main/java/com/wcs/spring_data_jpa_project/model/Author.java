@@ -6,10 +6,15 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_author_author_name", columnList = "author_name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "author")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -21,6 +26,8 @@ public class Author {
     @NotBlank(message = "Author name is required !")
     private String authorName;
 
+    // Cached as a list of book ids; the books themselves come from the "book" region
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "author-books")
     @OneToMany(mappedBy = "author" ,cascade = CascadeType.ALL, fetch = FetchType.EAGER)
     @JsonIgnore
     private List<Book> book;
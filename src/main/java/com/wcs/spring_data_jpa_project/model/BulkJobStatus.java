@@ -0,0 +1,8 @@
+package com.wcs.spring_data_jpa_project.model;
+
+public enum BulkJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,6 @@
+package com.wcs.spring_data_jpa_project.model;
+
+public enum BulkJobType {
+    UPDATE_EMAIL_BY_CITY,
+    DELETE_BY_CITY
+}
@@ -0,0 +1,49 @@
+package com.wcs.spring_data_jpa_project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// A city-wide update/delete processed in primary-key chunks by BulkUserJobService. lastProcessedId is
+// the checkpoint: after a restart the job continues with the users after it.
+@Entity
+@Table(name = "bulk_user_job", indexes = @Index(name = "idx_bulk_user_job_status", columnList = "status"))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUserJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private BulkJobType type;
+
+    @Column(nullable = false)
+    private String city;
+
+    private String newEmail;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private BulkJobStatus status = BulkJobStatus.PENDING;
+
+    private long lastProcessedId;
+
+    private long processedCount;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    private LocalDateTime finishedAt;
+}
@@ -1,18 +1,47 @@
 package com.wcs.spring_data_jpa_project.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.jpa.HibernateHints;
 
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_department_dept_name", columnList = "dept_name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "department")
+@BatchSize(size = 100)
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
+// Queries used by DepartmentService, see DepartmentQueries for the names
+@NamedQueries({
+        @NamedQuery(name = DepartmentQueries.ALL, query = "SELECT d FROM Department d",
+                hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true")),
+        @NamedQuery(name = DepartmentQueries.BY_NAME, query = "SELECT d FROM Department d WHERE d.deptName = :name"),
+        @NamedQuery(name = DepartmentQueries.COUNT_BY_NAME, query = "SELECT COUNT(d) FROM Department d WHERE d.deptName = :name"),
+        @NamedQuery(name = DepartmentQueries.SORTED_BY_NAME_ASC, query = "SELECT d FROM Department d ORDER BY d.deptName ASC",
+                hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true")),
+        @NamedQuery(name = DepartmentQueries.PAGE, query = "SELECT d FROM Department d ORDER BY d.id"),
+        @NamedQuery(name = DepartmentQueries.SEEK_BY_ID_FIRST, query = "SELECT d FROM Department d ORDER BY d.id"),
+        @NamedQuery(name = DepartmentQueries.SEEK_BY_ID_AFTER, query = "SELECT d FROM Department d WHERE d.id > :lastId ORDER BY d.id"),
+        @NamedQuery(name = DepartmentQueries.SEEK_BY_NAME_ASC_FIRST, query = "SELECT d FROM Department d ORDER BY d.deptName, d.id"),
+        @NamedQuery(name = DepartmentQueries.SEEK_BY_NAME_ASC_AFTER, query = "SELECT d FROM Department d "
+                + "WHERE d.deptName > :lastKey OR (d.deptName = :lastKey AND d.id > :lastId) ORDER BY d.deptName, d.id"),
+        @NamedQuery(name = DepartmentQueries.SEEK_BY_NAME_ASC_AFTER_NULL, query = "SELECT d FROM Department d "
+                + "WHERE (d.deptName IS NULL AND d.id > :lastId) OR d.deptName IS NOT NULL ORDER BY d.deptName, d.id"),
+        @NamedQuery(name = DepartmentQueries.UPDATE_NAME, query = "UPDATE Department d SET d.deptName = :name WHERE d.id = :id"),
+        @NamedQuery(name = DepartmentQueries.DELETE_BY_NAME, query = "DELETE FROM Department d WHERE d.deptName = :name")
+})
 public class Department {
 
     @Id
@@ -0,0 +1,24 @@
+package com.wcs.spring_data_jpa_project.model;
+
+/**
+ * Names of the JPQL queries declared with @NamedQuery on {@link Department}; like
+ * {@link UserQueries} they are compiled and validated when the SessionFactory starts.
+ */
+public final class DepartmentQueries {
+
+    public static final String ALL = "Department.all";
+    public static final String BY_NAME = "Department.byName";
+    public static final String COUNT_BY_NAME = "Department.countByName";
+    public static final String SORTED_BY_NAME_ASC = "Department.sortedByNameAsc";
+    public static final String PAGE = "Department.page";
+    public static final String SEEK_BY_ID_FIRST = "Department.seekByIdFirst";
+    public static final String SEEK_BY_ID_AFTER = "Department.seekByIdAfter";
+    public static final String SEEK_BY_NAME_ASC_FIRST = "Department.seekByNameAscFirst";
+    public static final String SEEK_BY_NAME_ASC_AFTER = "Department.seekByNameAscAfter";
+    public static final String SEEK_BY_NAME_ASC_AFTER_NULL = "Department.seekByNameAscAfterNull";
+    public static final String UPDATE_NAME = "Department.updateName";
+    public static final String DELETE_BY_NAME = "Department.deleteByName";
+
+    private DepartmentQueries() {
+    }
+}
@@ -0,0 +1,36 @@
+package com.wcs.spring_data_jpa_project.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+// Number of users per email domain, split over a few slots so concurrent registrations on a popular
+// domain don't all queue on one row lock. A domain's count is the sum of its slots (EmailDomainCounter).
+@Entity
+@Table(name = "email_domain_count")
+@IdClass(EmailDomainCount.Key.class)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EmailDomainCount {
+
+    @Id
+    private String domain;
+
+    @Id
+    private int slot;
+
+    @Column(nullable = false)
+    private long userCount;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Key implements Serializable {
+        private String domain;
+        private int slot;
+    }
+}
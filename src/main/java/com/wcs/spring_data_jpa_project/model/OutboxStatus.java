@@ -0,0 +1,7 @@
+package com.wcs.spring_data_jpa_project.model;
+
+public enum OutboxStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
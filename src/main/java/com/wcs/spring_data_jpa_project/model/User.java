@@ -7,6 +7,7 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
 import org.springframework.data.annotation.CreatedBy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedBy;
@@ -22,10 +23,96 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
+@Table(uniqueConstraints = @UniqueConstraint(name = User.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email"),
+        indexes = {
+                @Index(name = "idx_user_email_domain", columnList = "email_domain"),
+                @Index(name = "idx_user_address", columnList = "address"),
+                @Index(name = "idx_user_contact", columnList = "contact"),
+                @Index(name = "idx_user_user_name", columnList = "user_name"),
+                @Index(name = "idx_user_department", columnList = "department_id"),
+                @Index(name = "idx_user_updated_at", columnList = "updated_at")
+        })
+// Fetch plans: roles and department are LAZY, each query picks the graph it needs
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = User.WITH_ROLES, attributeNodes = @NamedAttributeNode("roles")),
+        @NamedEntityGraph(name = User.WITH_DEPARTMENT, attributeNodes = @NamedAttributeNode("department")),
+        @NamedEntityGraph(name = User.WITH_ROLES_AND_DEPARTMENT,
+                attributeNodes = {@NamedAttributeNode("roles"), @NamedAttributeNode("department")})
+})
+// Queries used by UserService, see UserQueries for the names
+@NamedQueries({
+        @NamedQuery(name = UserQueries.ALL, query = "SELECT u FROM User u"),
+        @NamedQuery(name = UserQueries.BY_IDS, query = "SELECT u FROM User u WHERE u.id IN :ids"),
+        @NamedQuery(name = UserQueries.BY_EMAIL, query = "SELECT u FROM User u WHERE u.email = :email"),
+        @NamedQuery(name = UserQueries.COUNT_BY_EMAIL, query = "SELECT COUNT(u) FROM User u WHERE u.email = :email"),
+        @NamedQuery(name = UserQueries.COUNT_BY_EMAIL_OTHER_THAN,
+                query = "SELECT COUNT(u) FROM User u WHERE u.email = :email AND u.id <> :id"),
+        @NamedQuery(name = UserQueries.SEARCH_LIKE, query = "SELECT u FROM User u WHERE LOWER(u.userName) LIKE :pattern "
+                + "OR LOWER(u.email) LIKE :pattern OR LOWER(u.address) LIKE :pattern"),
+        @NamedQuery(name = UserQueries.SEARCH_INDEX_ROWS, query = "SELECT u.id, u.userName, u.email, u.address FROM User u"),
+        @NamedQuery(name = UserQueries.SEARCH_INDEX_ROWS_CHANGED_SINCE, query = "SELECT u.id, u.userName, u.email, u.address "
+                + "FROM User u WHERE u.updatedAt >= :since"),
+        @NamedQuery(name = UserQueries.LIST_BY_CITY,
+                query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM + "WHERE u.address = :city"),
+        @NamedQuery(name = UserQueries.LIST_BY_CITY_SORTED,
+                query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM + "WHERE u.address = :city ORDER BY u.userName DESC"),
+        @NamedQuery(name = UserQueries.LIST_FILTERED, query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM),
+        @NamedQuery(name = UserQueries.LIST_FILTERED_BY_CITY,
+                query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM + "WHERE u.address = :city"),
+        @NamedQuery(name = UserQueries.LIST_FILTERED_BY_CONTACT,
+                query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM + "WHERE u.contact = :contact"),
+        @NamedQuery(name = UserQueries.LIST_FILTERED_BY_CITY_AND_CONTACT,
+                query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM + "WHERE u.address = :city AND u.contact = :contact"),
+        @NamedQuery(name = UserQueries.LIST_SORTED_BY_NAME_ASC,
+                query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM + "ORDER BY u.userName ASC"),
+        @NamedQuery(name = UserQueries.LIST_SORTED_BY_EMAIL_DESC,
+                query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM + "ORDER BY u.email DESC"),
+        @NamedQuery(name = UserQueries.LIST_PAGE, query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM + "ORDER BY u.id"),
+        @NamedQuery(name = UserQueries.LIST_WITH_DEPARTMENT, query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM_DEPARTMENT),
+        @NamedQuery(name = UserQueries.LIST_BY_DEPARTMENT_NAME,
+                query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM_DEPARTMENT + "WHERE d.deptName = :deptName"),
+        @NamedQuery(name = UserQueries.LIST_SORTED_BY_DEPARTMENT_NAME,
+                query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM_DEPARTMENT + "ORDER BY d.deptName DESC"),
+        @NamedQuery(name = UserQueries.SEEK_BY_ID_FIRST, query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM + "ORDER BY u.id"),
+        @NamedQuery(name = UserQueries.SEEK_BY_ID_AFTER,
+                query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM + "WHERE u.id > :lastId ORDER BY u.id"),
+        @NamedQuery(name = UserQueries.SEEK_BY_NAME_ASC_FIRST,
+                query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM + "ORDER BY u.userName, u.id"),
+        @NamedQuery(name = UserQueries.SEEK_BY_NAME_ASC_AFTER, query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM
+                + "WHERE u.userName > :lastKey OR (u.userName = :lastKey AND u.id > :lastId) ORDER BY u.userName, u.id"),
+        @NamedQuery(name = UserQueries.SEEK_BY_NAME_ASC_AFTER_NULL, query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM
+                + "WHERE (u.userName IS NULL AND u.id > :lastId) OR u.userName IS NOT NULL ORDER BY u.userName, u.id"),
+        @NamedQuery(name = UserQueries.SEEK_BY_EMAIL_DESC_FIRST,
+                query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM + "ORDER BY u.email DESC, u.id DESC"),
+        @NamedQuery(name = UserQueries.SEEK_BY_EMAIL_DESC_AFTER, query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM
+                + "WHERE u.email < :lastKey OR (u.email = :lastKey AND u.id < :lastId) OR u.email IS NULL "
+                + "ORDER BY u.email DESC, u.id DESC"),
+        @NamedQuery(name = UserQueries.SEEK_BY_EMAIL_DESC_AFTER_NULL, query = UserQueries.LIST_SELECT + UserQueries.LIST_FROM
+                + "WHERE u.email IS NULL AND u.id < :lastId ORDER BY u.email DESC, u.id DESC"),
+        @NamedQuery(name = UserQueries.CITY_CHUNK, query = "SELECT u.id, u.userName, u.email, u.address FROM User u "
+                + "WHERE u.address = :city AND u.id > :afterId ORDER BY u.id"),
+        @NamedQuery(name = UserQueries.UPDATE_EMAIL_BY_IDS,
+                query = "UPDATE User u SET u.email = :email, u.emailDomain = :emailDomain, u.updatedAt = :updatedAt "
+                        + "WHERE u.id IN :ids"),
+        @NamedQuery(name = UserQueries.DELETE_BY_IDS, query = "DELETE FROM User u WHERE u.id IN :ids"),
+        @NamedQuery(name = UserQueries.SUMMARY,
+                query = "SELECT new com.wcs.spring_data_jpa_project.dto.UserSummaryDTO(u.userName, u.email, u.contact) FROM User u"),
+        @NamedQuery(name = UserQueries.SUMMARY_BY_CITY, query = "SELECT new com.wcs.spring_data_jpa_project.dto.UserSummaryDTO("
+                + "u.userName, u.email, u.contact) FROM User u WHERE u.address = :city"),
+        @NamedQuery(name = UserQueries.DEPARTMENT_DETAILS, query = "SELECT new com.wcs.spring_data_jpa_project.dto.UserDeptDTO("
+                + "u.userName, u.email, d.deptName) FROM User u JOIN u.department d")
+})
 public class User {
 
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_user_email";
+    public static final String WITH_ROLES = "User.withRoles";
+    public static final String WITH_DEPARTMENT = "User.withDepartment";
+    public static final String WITH_ROLES_AND_DEPARTMENT = "User.withRolesAndDepartment";
+
+    // Pooled sequence (a user_seq table on MySQL) instead of IDENTITY so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Username can not be blank")
@@ -34,6 +121,10 @@ public class User {
     @Email(message = "Invalid email please fill correct email!")
     private String email;
 
+    // Lower-cased part after '@', derived from email on every insert/update so domain lookups can use an index
+    @Column(name = "email_domain")
+    private String emailDomain;
+
     @NotBlank(message = "Password is required")
     private String password;
 
@@ -44,7 +135,7 @@ public class User {
     @NotBlank(message = "Contact number should be required")
     private String contact;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "department_id")
     private Department department;
 
@@ -63,11 +154,27 @@ public class User {
     @LastModifiedBy
     private String updatedBy;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    // Loaded for a whole page at once when a query did not fetch it
+    @BatchSize(size = 100)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
             name = "user_roles",
             joinColumns = @JoinColumn(name = "user_id"),
             inverseJoinColumns = @JoinColumn(name = "role_id")
     )
     private Set<Role> roles = new HashSet<>();
+
+    @PrePersist
+    @PreUpdate
+    void syncEmailDomain() {
+        emailDomain = domainOf(email);
+    }
+
+    public static String domainOf(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.lastIndexOf('@');
+        return at < 0 || at == email.length() - 1 ? null : email.substring(at + 1).trim().toLowerCase();
+    }
 }
@@ -0,0 +1,71 @@
+package com.wcs.spring_data_jpa_project.model;
+
+/**
+ * Names of the JPQL queries declared with @NamedQuery on {@link User}. Hibernate parses and
+ * validates every named query while building the SessionFactory, so a broken query stops the
+ * application at boot, and each call reuses the compiled plan instead of re-parsing a string or
+ * re-interpreting a Criteria tree.
+ */
+public final class UserQueries {
+
+    // Shared select list of the UserListDTO projections
+    static final String LIST_SELECT = "SELECT new com.wcs.spring_data_jpa_project.dto.UserListDTO("
+            + "u.id, u.userName, u.email, u.address, u.contact, d.deptName) ";
+    static final String LIST_FROM = "FROM User u LEFT JOIN u.department d ";
+    static final String LIST_FROM_DEPARTMENT = "FROM User u JOIN u.department d ";
+
+    public static final String ALL = "User.all";
+    public static final String BY_IDS = "User.byIds";
+    public static final String BY_EMAIL = "User.byEmail";
+    public static final String COUNT_BY_EMAIL = "User.countByEmail";
+    public static final String COUNT_BY_EMAIL_OTHER_THAN = "User.countByEmailOtherThan";
+    public static final String SEARCH_LIKE = "User.searchLike";
+
+    // Rows of the Lucene search index (UserSearchIndex): all of them, or those modified since a checkpoint
+    public static final String SEARCH_INDEX_ROWS = "User.searchIndexRows";
+    public static final String SEARCH_INDEX_ROWS_CHANGED_SINCE = "User.searchIndexRowsChangedSince";
+
+    public static final String LIST_BY_CITY = "User.listByCity";
+    public static final String LIST_BY_CITY_SORTED = "User.listByCitySortedByNameDesc";
+    public static final String LIST_FILTERED = "User.listFiltered";
+    public static final String LIST_FILTERED_BY_CITY = "User.listFilteredByCity";
+    public static final String LIST_FILTERED_BY_CONTACT = "User.listFilteredByContact";
+    public static final String LIST_FILTERED_BY_CITY_AND_CONTACT = "User.listFilteredByCityAndContact";
+    public static final String LIST_SORTED_BY_NAME_ASC = "User.listSortedByNameAsc";
+    public static final String LIST_SORTED_BY_EMAIL_DESC = "User.listSortedByEmailDesc";
+    public static final String LIST_PAGE = "User.listPage";
+    public static final String LIST_WITH_DEPARTMENT = "User.listWithDepartment";
+    public static final String LIST_BY_DEPARTMENT_NAME = "User.listByDepartmentName";
+    public static final String LIST_SORTED_BY_DEPARTMENT_NAME = "User.listSortedByDepartmentNameDesc";
+
+    // Keyset pages: a first-page and a seek-after variant per listing, plus a seek-after-NULL variant for
+    // nullable sort keys (MySQL sorts NULLs first ascending and last descending)
+    public static final String SEEK_BY_ID_FIRST = "User.seekByIdFirst";
+    public static final String SEEK_BY_ID_AFTER = "User.seekByIdAfter";
+    public static final String SEEK_BY_NAME_ASC_FIRST = "User.seekByNameAscFirst";
+    public static final String SEEK_BY_NAME_ASC_AFTER = "User.seekByNameAscAfter";
+    public static final String SEEK_BY_NAME_ASC_AFTER_NULL = "User.seekByNameAscAfterNull";
+    public static final String SEEK_BY_EMAIL_DESC_FIRST = "User.seekByEmailDescFirst";
+    public static final String SEEK_BY_EMAIL_DESC_AFTER = "User.seekByEmailDescAfter";
+    public static final String SEEK_BY_EMAIL_DESC_AFTER_NULL = "User.seekByEmailDescAfterNull";
+
+    // Bulk jobs (BulkUserJobService): walk a city in id order, then update/delete one chunk by id
+    public static final String CITY_CHUNK = "User.cityChunk";
+    public static final String UPDATE_EMAIL_BY_IDS = "User.updateEmailByIds";
+    public static final String DELETE_BY_IDS = "User.deleteByIds";
+
+    public static final String SUMMARY = "User.summary";
+    public static final String SUMMARY_BY_CITY = "User.summaryByCity";
+    public static final String DEPARTMENT_DETAILS = "User.departmentDetails";
+
+    private UserQueries() {
+    }
+
+    // One precompiled query per combination of the optional getFilteredUsers filters
+    public static String filtered(boolean byCity, boolean byContact) {
+        if (byCity) {
+            return byContact ? LIST_FILTERED_BY_CITY_AND_CONTACT : LIST_FILTERED_BY_CITY;
+        }
+        return byContact ? LIST_FILTERED_BY_CONTACT : LIST_FILTERED;
+    }
+}
@@ -0,0 +1,13 @@
+package com.wcs.spring_data_jpa_project.repository;
+
+import com.wcs.spring_data_jpa_project.model.BulkJobStatus;
+import com.wcs.spring_data_jpa_project.model.BulkUserJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BulkUserJobRepository extends JpaRepository<BulkUserJob, Long> {
+
+    List<BulkUserJob> findByStatusInOrderById(Collection<BulkJobStatus> statuses);
+}
@@ -0,0 +1,10 @@
+package com.wcs.spring_data_jpa_project.repository;
+
+import com.wcs.spring_data_jpa_project.model.Role;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface RoleRepository extends JpaRepository<Role, Long> {
+    Optional<Role> findByName(String name);
+}
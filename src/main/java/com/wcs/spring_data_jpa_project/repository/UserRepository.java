@@ -1,10 +1,12 @@
 package com.wcs.spring_data_jpa_project.repository;
 
 import com.wcs.spring_data_jpa_project.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User,Long> {
+    @EntityGraph(User.WITH_ROLES_AND_DEPARTMENT)
     Optional<User> findByEmail(String email);
 }
@@ -13,6 +13,7 @@ import org.springframework.stereotype.Service;
 import java.util.List;
 
 @Service
+@Metered
 public class BookService {
     @Autowired
     private BookRepository bookRepository;
@@ -0,0 +1,153 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.exception.BulkJobNotFoundException;
+import com.wcs.spring_data_jpa_project.exception.InvalidInputException;
+import com.wcs.spring_data_jpa_project.model.BulkJobStatus;
+import com.wcs.spring_data_jpa_project.model.BulkJobType;
+import com.wcs.spring_data_jpa_project.model.BulkUserJob;
+import com.wcs.spring_data_jpa_project.repository.BulkUserJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the city-wide email update and delete as background jobs instead of one unbounded statement
+ * per request. A job walks the city's users in primary-key order, one chunk per short transaction
+ * (UserService.*ByCityChunk), saves its checkpoint after every chunk and pauses between chunks so
+ * other writers get the rows in between. Jobs still PENDING/RUNNING at startup are resumed from
+ * their checkpoint; re-running a chunk after a crash is harmless since both operations are idempotent.
+ * An email update sets one address on every user of the city, and emails are unique, so it is only
+ * accepted for a city with at most one user (UserService.checkEmailUpdateByCity). A user who moves
+ * into the city while the job is queued makes the job fail on the unique key.
+ */
+@Service
+@Slf4j
+public class BulkUserJobService {
+
+    private final BulkUserJobRepository jobRepository;
+    private final UserService userService;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "bulk-user-jobs");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public BulkUserJobService(BulkUserJobRepository jobRepository,
+                              UserService userService,
+                              @Value("${app.users.bulk.chunk-size:500}") int chunkSize,
+                              @Value("${app.users.bulk.pause-ms:50}") long pauseMs) {
+        this.jobRepository = jobRepository;
+        this.userService = userService;
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+    }
+
+    public BulkUserJob submitEmailUpdate(String city, String newEmail) {
+        if (city == null || city.isBlank() || newEmail == null || newEmail.isBlank()) {
+            throw new InvalidInputException("City and email must not be null or blank");
+        }
+        userService.checkEmailUpdateByCity(city, newEmail);
+        return submit(BulkJobType.UPDATE_EMAIL_BY_CITY, city, newEmail);
+    }
+
+    public BulkUserJob submitDelete(String city) {
+        if (city == null || city.isBlank()) {
+            throw new InvalidInputException("City must not be null or blank");
+        }
+        return submit(BulkJobType.DELETE_BY_CITY, city, null);
+    }
+
+    public BulkUserJob getJob(Long id) {
+        return jobRepository.findById(id)
+                .orElseThrow(() -> new BulkJobNotFoundException("Bulk job with ID " + id + " not found"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<BulkUserJob> unfinished = jobRepository.findByStatusInOrderById(
+                EnumSet.of(BulkJobStatus.PENDING, BulkJobStatus.RUNNING));
+        for (BulkUserJob job : unfinished) {
+            log.info("Resuming bulk job {} ({} in {}) after user id {}", job.getId(), job.getType(), job.getCity(),
+                    job.getLastProcessedId());
+            executor.execute(() -> run(job.getId()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrupts the running job between chunks; it stays RUNNING and is resumed on the next start
+        executor.shutdownNow();
+    }
+
+    private BulkUserJob submit(BulkJobType type, String city, String newEmail) {
+        BulkUserJob job = new BulkUserJob();
+        job.setType(type);
+        job.setCity(city);
+        job.setNewEmail(newEmail);
+        job.setStatus(BulkJobStatus.PENDING);
+        job.setCreatedAt(LocalDateTime.now());
+        job.setUpdatedAt(job.getCreatedAt());
+        BulkUserJob saved = jobRepository.save(job);
+        log.info("Bulk job {} queued: {} in {}", saved.getId(), type, city);
+        executor.execute(() -> run(saved.getId()));
+        return saved;
+    }
+
+    private void run(Long jobId) {
+        BulkUserJob job = getJob(jobId);
+        job.setStatus(BulkJobStatus.RUNNING);
+        job = save(job);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Long> ids = job.getType() == BulkJobType.UPDATE_EMAIL_BY_CITY
+                        ? userService.updateEmailsByCityChunk(job.getCity(), job.getNewEmail(), job.getLastProcessedId(), chunkSize)
+                        : userService.deleteUsersByCityChunk(job.getCity(), job.getLastProcessedId(), chunkSize);
+                if (ids.isEmpty()) {
+                    job.setStatus(BulkJobStatus.COMPLETED);
+                    job.setFinishedAt(LocalDateTime.now());
+                    save(job);
+                    log.info("Bulk job {} completed: {} users processed", jobId, job.getProcessedCount());
+                    return;
+                }
+                job.setLastProcessedId(ids.get(ids.size() - 1));
+                job.setProcessedCount(job.getProcessedCount() + ids.size());
+                job = save(job);
+                if (pauseMs > 0) {
+                    Thread.sleep(pauseMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.info("Bulk job {} interrupted after user id {}, will resume on restart", jobId, job.getLastProcessedId());
+        } catch (RuntimeException e) {
+            log.error("Bulk job {} failed after user id {}: {}", jobId, job.getLastProcessedId(), e.getMessage(), e);
+            job.setStatus(BulkJobStatus.FAILED);
+            job.setError(truncate(e.getMessage()));
+            job.setFinishedAt(LocalDateTime.now());
+            save(job);
+        }
+    }
+
+    private BulkUserJob save(BulkUserJob job) {
+        job.setUpdatedAt(LocalDateTime.now());
+        return jobRepository.save(job);
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
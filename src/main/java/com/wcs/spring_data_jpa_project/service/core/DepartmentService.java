@@ -1,6 +1,8 @@
 package com.wcs.spring_data_jpa_project.service.core;
 
+import com.wcs.spring_data_jpa_project.dto.CursorPage;
 import com.wcs.spring_data_jpa_project.model.Department;
+import com.wcs.spring_data_jpa_project.model.DepartmentQueries;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
@@ -9,9 +11,11 @@ import jakarta.persistence.criteria.*;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
+@Metered
 @Transactional
 public class DepartmentService {
 
@@ -24,6 +28,7 @@ public class DepartmentService {
     }
 
 
+    @ReadOnlyQuery
     public Department getDepartmentById(Long id) {
         return entityManager.find(Department.class, id);
     }
@@ -41,94 +46,130 @@ public class DepartmentService {
         }
     }
 
+    // Cached query (hint on the named query): the id list lives in the query cache, the rows in the
+    // "department" region. Any write to the department table invalidates it.
+    @ReadOnlyQuery
     public List<Department> getAllDepartments() {
-        String jpql = "SELECT d FROM Department d";
-        TypedQuery<Department> query = entityManager.createQuery(jpql, Department.class);
-        return query.getResultList();
+        return entityManager.createNamedQuery(DepartmentQueries.ALL, Department.class).getResultList();
     }
 
+    @ReadOnlyQuery
     public Department getDepartmentByName(String name) {
-        String jpql = "SELECT d FROM Department d WHERE d.name = :name";
-        TypedQuery<Department> query = entityManager.createQuery(jpql, Department.class);
+        TypedQuery<Department> query = entityManager.createNamedQuery(DepartmentQueries.BY_NAME, Department.class);
         query.setParameter("name", name);
         return query.getSingleResult();
     }
 
+    @ReadOnlyQuery
     public List<Department> getDepartmentsNative() {
         String sql = "SELECT * FROM Department";
         Query query = entityManager.createNativeQuery(sql, Department.class);
         return query.getResultList();
     }
 
+    @ReadOnlyQuery
     public Long countByName(String name) {
-        String jpql = "SELECT COUNT(d) FROM Department d WHERE d.name = :name";
-        TypedQuery<Long> query = entityManager.createQuery(jpql, Long.class);
+        TypedQuery<Long> query = entityManager.createNamedQuery(DepartmentQueries.COUNT_BY_NAME, Long.class);
         query.setParameter("name", name);
         return query.getSingleResult();
     }
 
+    @ReadOnlyQuery
     public List<Department> getDepartmentsByNameCriteria(String name) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<Department> cq = cb.createQuery(Department.class);
         Root<Department> root = cq.from(Department.class);
 
-        Predicate namePredicate = cb.equal(root.get("name"), name);
+        Predicate namePredicate = cb.equal(root.get("deptName"), name);
         cq.select(root).where(namePredicate);
 
         return entityManager.createQuery(cq).getResultList();
     }
 
+    @ReadOnlyQuery
     public List<Department> getDepartmentsSortedByNameAsc() {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Department> cq = cb.createQuery(Department.class);
-        Root<Department> root = cq.from(Department.class);
-        cq.orderBy(cb.asc(root.get("name")));
-        return entityManager.createQuery(cq).getResultList();
+        return entityManager.createNamedQuery(DepartmentQueries.SORTED_BY_NAME_ASC, Department.class).getResultList();
     }
 
+    @ReadOnlyQuery
     public List<Department> getDepartmentsPaginated(int pageNo, int pageSize) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Department> cq = cb.createQuery(Department.class);
-        Root<Department> root = cq.from(Department.class);
-        cq.select(root);
-
         int offset = (pageNo - 1) * pageSize;
-        return entityManager.createQuery(cq)
+        return entityManager.createNamedQuery(DepartmentQueries.PAGE, Department.class)
                 .setFirstResult(offset)
                 .setMaxResults(pageSize)
                 .getResultList();
     }
 
-    public int updateDepartmentName(Long id, String newName) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaUpdate<Department> update = cb.createCriteriaUpdate(Department.class);
-        Root<Department> root = update.from(Department.class);
+    // Keyset variants: seek past the last (deptName, id) / id seen instead of skipping rows with OFFSET
+    @ReadOnlyQuery
+    public CursorPage<Department> getDepartmentsPaginatedByCursor(String cursor, int pageSize) {
+        return seekDepartments("byId", false, cursor, pageSize);
+    }
 
-        update.set("name", newName)
-                .where(cb.equal(root.get("id"), id));
+    @ReadOnlyQuery
+    public CursorPage<Department> getDepartmentsSortedByNameAscByCursor(String cursor, int pageSize) {
+        return seekDepartments("byNameAsc", true, cursor, pageSize);
+    }
+
+    private CursorPage<Department> seekDepartments(String listing, boolean byName, String cursor, int pageSize) {
+        KeysetCursor.checkPageSize(pageSize);
+        KeysetCursor after = KeysetCursor.decode(cursor, listing);
+
+        TypedQuery<Department> query;
+        if (after == null) {
+            query = entityManager.createNamedQuery(
+                    byName ? DepartmentQueries.SEEK_BY_NAME_ASC_FIRST : DepartmentQueries.SEEK_BY_ID_FIRST, Department.class);
+        } else if (!byName) {
+            query = entityManager.createNamedQuery(DepartmentQueries.SEEK_BY_ID_AFTER, Department.class)
+                    .setParameter("lastId", after.lastId());
+        } else if (after.lastKey() == null) {
+            // Previous page ended on a department without a name: finish the NULL names, then the rest
+            query = entityManager.createNamedQuery(DepartmentQueries.SEEK_BY_NAME_ASC_AFTER_NULL, Department.class)
+                    .setParameter("lastId", after.lastId());
+        } else {
+            query = entityManager.createNamedQuery(DepartmentQueries.SEEK_BY_NAME_ASC_AFTER, Department.class)
+                    .setParameter("lastId", after.lastId())
+                    .setParameter("lastKey", after.lastKey());
+        }
 
-        return entityManager.createQuery(update).executeUpdate();
+        List<Department> rows = query
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        Department last = rows.get(pageSize - 1);
+        String next = new KeysetCursor(listing, last.getId(), byName ? last.getDeptName() : null).encode();
+        return new CursorPage<>(new ArrayList<>(rows.subList(0, pageSize)), next);
     }
 
-    public int deleteDepartmentByName(String name) {
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaDelete<Department> delete = cb.createCriteriaDelete(Department.class);
-        Root<Department> root = delete.from(Department.class);
+    public int updateDepartmentName(Long id, String newName) {
+        return entityManager.createNamedQuery(DepartmentQueries.UPDATE_NAME)
+                .setParameter("name", newName)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
 
-        delete.where(cb.equal(root.get("name"), name));
-        return entityManager.createQuery(delete).executeUpdate();
+    public int deleteDepartmentByName(String name) {
+        return entityManager.createNamedQuery(DepartmentQueries.DELETE_BY_NAME)
+                .setParameter("name", name)
+                .executeUpdate();
     }
 }
 
 // Topics Covered
 
+// Named queries (DepartmentQueries): compiled and validated at startup
 // JPQL: Get department by name
 // JPQL: Get all departments
 // Native Query: Get all departments
 // JPQL: Count departments by name
 // Criteria: Filter by name
 // Criteria: Sort by name ASC
+// Query cache: all departments, sorted by name
 // Criteria: Pagination
+// Criteria: Keyset (cursor) pagination
 // Criteria: Update name by ID
 // Criteria: Delete by name
 
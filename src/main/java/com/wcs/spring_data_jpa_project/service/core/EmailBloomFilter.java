@@ -0,0 +1,135 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter of registered emails. "Definitely not registered" answers come from memory; only a
+ * "maybe" has to be confirmed in MySQL. Emails are lower-cased because the unique index on
+ * User.email compares them case-insensitively. Deleted users are not removed (a Bloom filter can't),
+ * which only costs a DB check until the next rebuild.
+ * <p>
+ * The filter is per instance and only sees emails written through this node, so with several nodes an
+ * email registered elsewhere reads as free until the next periodic rebuild. Its answers are a hint for
+ * the signup form; the unique key on User.email is what rejects a duplicate registration.
+ */
+@Component
+@Slf4j
+public class EmailBloomFilter {
+
+    private static final class Bits {
+        final AtomicLongArray words;
+        final long numBits;
+        final int numHashes;
+
+        Bits(long expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(expectedInsertions, 1);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            m = Math.min(Math.max(m, 64), (long) Integer.MAX_VALUE * 64);
+            this.words = new AtomicLongArray((int) ((m + 63) / 64));
+            this.numBits = (long) words.length() * 64;
+            this.numHashes = Math.max(1, (int) Math.round((double) m / n * Math.log(2)));
+        }
+    }
+
+    private final long minExpectedInsertions;
+    private final double falsePositiveRate;
+    private volatile Bits bits;
+    private volatile Bits rebuilding;
+    // False until the first rebuild: an empty filter would report every email as free
+    private volatile boolean ready;
+
+    public EmailBloomFilter(@Value("${app.users.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                            @Value("${app.users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.minExpectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bits = new Bits(expectedInsertions, falsePositiveRate);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean mightContain(String email) {
+        Bits current = bits;
+        long[] hash = hash(email);
+        for (int i = 0; i < current.numHashes; i++) {
+            long bit = index(hash, i, current.numBits);
+            if ((current.words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(String email) {
+        if (email == null) {
+            return;
+        }
+        long[] hash = hash(email);
+        set(bits, hash);
+        Bits next = rebuilding;
+        if (next != null) {
+            set(next, hash);
+        }
+    }
+
+    // Refill from the database, sized for twice the current count so it has room to grow
+    public synchronized void rebuild(long currentCount, Iterator<String> emails) {
+        Bits fresh = new Bits(Math.max(minExpectedInsertions, currentCount * 2), falsePositiveRate);
+        rebuilding = fresh;
+        long added = 0;
+        while (emails.hasNext()) {
+            set(fresh, hash(emails.next()));
+            added++;
+        }
+        bits = fresh;
+        rebuilding = null;
+        ready = true;
+        log.info("Email filter rebuilt with {} emails ({} bits, {} hashes)", added, fresh.numBits, fresh.numHashes);
+    }
+
+    private static void set(Bits target, long[] hash) {
+        for (int i = 0; i < target.numHashes; i++) {
+            long bit = index(hash, i, target.numBits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long old;
+            do {
+                old = target.words.get(word);
+                if ((old & mask) != 0) {
+                    break;
+                }
+            } while (!target.words.compareAndSet(word, old, old | mask));
+        }
+    }
+
+    // Kirsch-Mitzenmacher double hashing: bit_i = h1 + i * h2
+    private static long index(long[] hash, int i, long numBits) {
+        return Math.floorMod(hash[0] + i * hash[1], numBits);
+    }
+
+    private static long[] hash(String email) {
+        byte[] bytes = email.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+        long h = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        long h1 = mix(h);
+        long h2 = mix(h ^ 0x9e3779b97f4a7c15L) | 1L;
+        return new long[]{h1, h2};
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
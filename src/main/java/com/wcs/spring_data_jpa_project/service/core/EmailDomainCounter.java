@@ -0,0 +1,98 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.dto.EmailDomainCountDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Users per email domain, maintained incrementally by UserService in the same transaction as the user
+ * row it registers, moves or deletes, so a count is a primary-key read instead of a scan of User.
+ * Each change goes to a random one of {@link #SLOTS} rows of the domain (see EmailDomainCount); a
+ * domain's count is the sum of its slots, which may individually go negative.
+ * <p>
+ * The writes are native SQL, so each one declares email_domain_count as its only query space. Without
+ * that, Hibernate assumes a native statement may touch any table and evicts every second-level cache
+ * region and the query cache on each registration.
+ */
+@Component
+@Transactional
+@Slf4j
+public class EmailDomainCounter {
+
+    static final int SLOTS = 16;
+
+    private static final String TABLE = "email_domain_count";
+
+    private static final String UPSERT = "INSERT INTO email_domain_count (domain, slot, user_count) VALUES (:domain, :slot, :delta) "
+            + "ON DUPLICATE KEY UPDATE user_count = user_count + :delta";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public void increment(String domain) {
+        add(domain, 1);
+    }
+
+    public void decrement(String domain) {
+        add(domain, -1);
+    }
+
+    public void add(String domain, long delta) {
+        if (domain == null || delta == 0) {
+            return;
+        }
+        nativeStatement(UPSERT)
+                .setParameter("domain", domain)
+                .setParameter("slot", ThreadLocalRandom.current().nextInt(SLOTS))
+                .setParameter("delta", delta)
+                .executeUpdate();
+    }
+
+    // One upsert per distinct domain, for batch registration and bulk jobs
+    public void addAll(Map<String, Long> deltas) {
+        deltas.forEach(this::add);
+    }
+
+    @ReadOnlyQuery
+    public long count(String domain) {
+        return entityManager.createQuery(
+                        "SELECT COALESCE(SUM(c.userCount), 0) FROM EmailDomainCount c WHERE c.domain = :domain", Long.class)
+                .setParameter("domain", domain)
+                .getSingleResult();
+    }
+
+    @ReadOnlyQuery
+    public List<EmailDomainCountDTO> top(int limit) {
+        return entityManager.createQuery(
+                        "SELECT new com.wcs.spring_data_jpa_project.dto.EmailDomainCountDTO(c.domain, SUM(c.userCount)) "
+                                + "FROM EmailDomainCount c GROUP BY c.domain HAVING SUM(c.userCount) > 0 "
+                                + "ORDER BY SUM(c.userCount) DESC, c.domain", EmailDomainCountDTO.class)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // Recount from the email_domain column (filled by migration V2); admin repair
+    public long rebuild() {
+        nativeStatement("DELETE FROM email_domain_count").executeUpdate();
+        int domains = nativeStatement(
+                        "INSERT INTO email_domain_count (domain, slot, user_count) "
+                                + "SELECT email_domain, 0, COUNT(*) FROM user WHERE email_domain IS NOT NULL GROUP BY email_domain")
+                .executeUpdate();
+        log.info("Email domain counters rebuilt for {} domains", domains);
+        return domains;
+    }
+
+    private NativeQuery<?> nativeStatement(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(TABLE);
+    }
+}
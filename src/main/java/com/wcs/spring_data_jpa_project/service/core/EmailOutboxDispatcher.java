@@ -0,0 +1,140 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.model.EmailOutbox;
+import com.wcs.spring_data_jpa_project.model.OutboxStatus;
+import com.wcs.spring_data_jpa_project.repository.EmailOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Background sender for the email outbox. Each poll claims a batch of due rows in one short transaction
+ * (skipping rows another node holds): the attempt is counted and next_attempt_at is pushed out by the
+ * lease, so no other poll picks the row up while it is being sent. The emails are then sent with no
+ * transaction or connection held, and each outcome is written in its own short transaction: SENT, or a
+ * retry with exponential backoff. After maxAttempts failures a row is parked as DEAD for manual
+ * inspection. If the node dies mid-batch, its unfinished rows become due again when the lease runs out.
+ */
+@Component
+@Slf4j
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxRepository outboxRepository;
+    private final EmailService emailService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final long leaseMs;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                                 EmailService emailService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                                 @Value("${app.mail.outbox.max-attempts:6}") int maxAttempts,
+                                 @Value("${app.mail.outbox.backoff-ms:30000}") long backoffMs,
+                                 @Value("${app.mail.outbox.max-backoff-ms:3600000}") long maxBackoffMs,
+                                 @Value("${app.mail.outbox.lease-ms:600000}") long leaseMs) {
+        this.outboxRepository = outboxRepository;
+        this.emailService = emailService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = backoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.leaseMs = leaseMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-interval-ms:2000}")
+    public void dispatchPending() {
+        List<EmailOutbox> batch = claim();
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        int sent = 0;
+        for (EmailOutbox email : batch) {
+            if (deliver(email)) {
+                sent++;
+            }
+        }
+        log.info("Outbox batch processed: {} sent, {} failed", sent, batch.size() - sent);
+    }
+
+    private List<EmailOutbox> claim() {
+        return transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> batch = outboxRepository.findDue(OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+            LocalDateTime leaseEnd = now.plus(Duration.ofMillis(leaseMs));
+            for (EmailOutbox email : batch) {
+                // Flushed on commit; the rows are detached afterwards and only read from here on
+                email.setAttempts(email.getAttempts() + 1);
+                email.setNextAttemptAt(leaseEnd);
+            }
+            return batch;
+        });
+    }
+
+    private boolean deliver(EmailOutbox email) {
+        try {
+            emailService.deliver(email.getRecipient(), email.getSubject(), email.getBody());
+        } catch (RuntimeException ex) {
+            recordFailure(email, ex);
+            return false;
+        }
+        email.setStatus(OutboxStatus.SENT);
+        email.setSentAt(LocalDateTime.now());
+        email.setLastError(null);
+        record(email);
+        return true;
+    }
+
+    private void recordFailure(EmailOutbox email, RuntimeException ex) {
+        email.setLastError(truncate(ex.getMessage()));
+        if (email.getAttempts() >= maxAttempts) {
+            email.setStatus(OutboxStatus.DEAD);
+            log.error("Email {} to {} moved to dead letter after {} attempts: {}",
+                    email.getId(), email.getRecipient(), email.getAttempts(), ex.getMessage());
+        } else {
+            email.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffFor(email.getAttempts()))));
+            log.warn("Email {} to {} failed (attempt {}), retrying at {}",
+                    email.getId(), email.getRecipient(), email.getAttempts(), email.getNextAttemptAt());
+        }
+        record(email);
+    }
+
+    // A failed write leaves the row PENDING until its lease ends, then it is sent again
+    private void record(EmailOutbox email) {
+        try {
+            int updated = outboxRepository.recordOutcome(email.getId(), email.getAttempts(), email.getStatus(),
+                    email.getNextAttemptAt(), email.getLastError(), email.getSentAt());
+            if (updated == 0) {
+                log.warn("Email {} was claimed again before its outcome ({}) was recorded", email.getId(), email.getStatus());
+            }
+        } catch (RuntimeException ex) {
+            log.error("Could not record outcome {} of email {}: {}", email.getStatus(), email.getId(), ex.getMessage());
+        }
+    }
+
+    // backoff, 2x backoff, 4x backoff ... capped at maxBackoffMs
+    long backoffFor(int attempts) {
+        long delay = backoffMs << Math.min(attempts - 1, 20);
+        return Math.min(delay, maxBackoffMs);
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
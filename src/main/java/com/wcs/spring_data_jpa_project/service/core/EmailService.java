@@ -1,5 +1,8 @@
 package com.wcs.spring_data_jpa_project.service.core;
 
+import com.wcs.spring_data_jpa_project.model.EmailOutbox;
+import com.wcs.spring_data_jpa_project.model.OutboxStatus;
+import com.wcs.spring_data_jpa_project.repository.EmailOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.MailException;
@@ -9,6 +12,8 @@ import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
+
 @Service
 public class EmailService {
 
@@ -17,22 +22,44 @@ public class EmailService {
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
     @Value("${spring.mail.username}")
     private String fromEmail;
 
+    // Queue an email in the caller's transaction; EmailOutboxDispatcher sends it after commit
+    public EmailOutbox enqueueEmail(String toEmail, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(toEmail);
+        email.setSubject(subject);
+        email.setBody(body);
+        email.setStatus(OutboxStatus.PENDING);
+        email.setNextAttemptAt(now);
+        email.setCreatedAt(now);
+        log.debug("Email to {} queued in outbox", toEmail);
+        return outboxRepository.save(email);
+    }
+
     public void sendEmail(String toEmail, String subject, String body) {
         try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(toEmail);
-            message.setSubject(subject);
-            message.setText(body);
-
-            mailSender.send(message);
-            log.info("Email sent to {}", toEmail);
+            deliver(toEmail, subject, body);
         } catch (MailException ex) {
             log.error("Failed to send email to {}: {}", toEmail, ex.getMessage(), ex);
             // Optional: throw custom exception if needed
         }
     }
+
+    // Same as sendEmail but lets the failure through so the outbox can retry it
+    public void deliver(String toEmail, String subject, String body) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setFrom(fromEmail);
+        message.setTo(toEmail);
+        message.setSubject(subject);
+        message.setText(body);
+
+        mailSender.send(message);
+        log.info("Email sent to {}", toEmail);
+    }
 }
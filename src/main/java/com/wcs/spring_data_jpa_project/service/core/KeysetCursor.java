@@ -0,0 +1,55 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.exception.InvalidInputException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for keyset pagination: remembers the (sortKey, id) of the last row a client saw,
+ * so the next page is a "WHERE (key, id) > (?, ?)" seek on the index instead of an OFFSET scan.
+ * The listing name is part of the token so a cursor from one listing is rejected by another.
+ * The sort key is tagged so a NULL key ("n") stays distinct from an empty string ("k" + key).
+ */
+record KeysetCursor(String listing, Long lastId, String lastKey) {
+
+    static final int MAX_PAGE_SIZE = 500;
+
+    private static final String NULL_KEY = "n";
+    private static final String KEY = "k";
+
+    String encode() {
+        String payload = listing + ":" + lastId + ":" + (lastKey == null ? NULL_KEY : KEY + lastKey);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Null or blank cursor means "start from the first row"
+    static KeysetCursor decode(String token, String expectedListing) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = payload.split(":", 3);
+            if (parts.length != 3 || !parts[0].equals(expectedListing)) {
+                throw new InvalidInputException("Cursor does not belong to this listing");
+            }
+            String key = parts[2];
+            if (key.equals(NULL_KEY)) {
+                return new KeysetCursor(parts[0], Long.parseLong(parts[1]), null);
+            }
+            if (!key.startsWith(KEY)) {
+                throw new InvalidInputException("Malformed pagination cursor");
+            }
+            return new KeysetCursor(parts[0], Long.parseLong(parts[1]), key.substring(KEY.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidInputException("Malformed pagination cursor");
+        }
+    }
+
+    static void checkPageSize(int pageSize) {
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new InvalidInputException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Every public method of the annotated service is timed (service.method, a latency histogram) and its
+ * exceptions counted (service.method.errors), both tagged with the HTTP endpoint that made the call.
+ * Applied by ObservabilityConfig; only calls through the Spring proxy are seen, not self-invocations.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Metered {
+}
@@ -0,0 +1,165 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs bcrypt encode/matches on a dedicated pool sized to the CPU count with a bounded queue, so a
+ * login storm queues here instead of tying up every Tomcat thread. When the queue is full (or a hash
+ * waits longer than the timeout) the caller gets ServiceBusyException, which is answered with 503.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final int strength;
+    private final long targetMs;
+
+    private final Timer waitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Counter rejected;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.security.bcrypt.threads:0}") int threads,
+                                  @Value("${app.security.bcrypt.queue-capacity:64}") int queueCapacity,
+                                  @Value("${app.security.bcrypt.timeout-ms:5000}") long timeoutMs,
+                                  @Value("${app.security.bcrypt.strength:10}") int strength,
+                                  @Value("${app.security.bcrypt.target-ms:250}") long targetMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+        this.strength = strength;
+        this.targetMs = targetMs;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.waitTimer = Timer.builder("security.bcrypt.wait")
+                .description("Time a password hash waited in the bcrypt queue")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.encodeTimer = Timer.builder("security.bcrypt.hash")
+                .tag("operation", "encode")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.matchTimer = Timer.builder("security.bcrypt.hash")
+                .tag("operation", "matches")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.rejected = Counter.builder("security.bcrypt.rejected")
+                .description("Password operations refused because the bcrypt pool was saturated")
+                .register(meterRegistry);
+        Gauge.builder("security.bcrypt.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("security.bcrypt.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+
+        log.info("bcrypt pool started with {} threads and a queue of {}", poolSize, queueCapacity);
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(() -> passwordEncoder.encode(rawPassword), encodeTimer));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchTimer));
+    }
+
+    // Encode many passwords, at most one pool's worth in flight at a time so a bulk import can't flood the queue
+    public List<String> encodeAll(List<String> rawPasswords) {
+        List<String> hashes = new ArrayList<>(rawPasswords.size());
+        int window = executor.getCorePoolSize();
+        for (int from = 0; from < rawPasswords.size(); from += window) {
+            List<Future<String>> inFlight = new ArrayList<>(window);
+            for (String raw : rawPasswords.subList(from, Math.min(from + window, rawPasswords.size()))) {
+                inFlight.add(submit(() -> passwordEncoder.encode(raw), encodeTimer));
+            }
+            for (Future<String> future : inFlight) {
+                hashes.add(await(future));
+            }
+        }
+        return hashes;
+    }
+
+    // Report how long one hash takes at the configured cost here, and which cost would hit the target latency
+    @EventListener(ApplicationReadyEvent.class)
+    public void calibrate() {
+        executor.execute(() -> {
+            int samples = 3;
+            long start = System.nanoTime();
+            for (int i = 0; i < samples; i++) {
+                passwordEncoder.encode("calibration-" + i);
+            }
+            double avgMs = (System.nanoTime() - start) / 1_000_000.0 / samples;
+            int suggested = strength + (int) Math.floor(Math.log(targetMs / avgMs) / Math.log(2));
+            suggested = Math.max(4, Math.min(31, suggested));
+            log.info("bcrypt calibration: cost {} takes {} ms per hash on this host; target {} ms suggests cost {}",
+                    strength, String.format("%.1f", avgMs), targetMs, suggested);
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> Future<T> submit(Supplier<T> task, Timer hashTimer) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.record(task);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("bcrypt queue full ({} waiting), rejecting request", executor.getQueue().size());
+            throw new ServiceBusyException("Too many login or registration requests in progress, please retry shortly");
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new ServiceBusyException("Password check timed out, please retry shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceBusyException("Password check interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
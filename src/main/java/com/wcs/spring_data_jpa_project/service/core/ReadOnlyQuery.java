@@ -0,0 +1,22 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a service method as a pure read. Overrides the class-level read-write transaction with a
+ * Spring read-only one: Hibernate switches the session to FlushMode.MANUAL and loads entities
+ * read-only (no dirty-checking snapshots, no flush on commit) and the JDBC connection is flagged
+ * read-only for the duration of the call.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true)
+public @interface ReadOnlyQuery {
+}
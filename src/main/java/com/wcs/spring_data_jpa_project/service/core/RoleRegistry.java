@@ -0,0 +1,73 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.model.Role;
+import com.wcs.spring_data_jpa_project.repository.RoleRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Roles are a handful of rows that almost never change, so they are loaded once at startup and
+ * served from memory. Only the default role and the admin paths reach it, never a client-supplied name
+ * on a public endpoint. A missing role is created in its own transaction; if another node inserts the
+ * same name first, the unique constraint on Role.name rejects ours and we pick up the existing row.
+ */
+@Component
+@Slf4j
+public class RoleRegistry {
+
+    private final RoleRepository roleRepository;
+    private final TransactionTemplate requiresNew;
+    private final Map<String, Role> roles = new ConcurrentHashMap<>();
+    // Not synchronized: the insert blocks on JDBC, which would pin a virtual thread to its carrier
+    private final ReentrantLock createLock = new ReentrantLock();
+
+    public RoleRegistry(RoleRepository roleRepository, PlatformTransactionManager transactionManager) {
+        this.roleRepository = roleRepository;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @PostConstruct
+    public void load() {
+        roleRepository.findAll().forEach(role -> roles.put(role.getName(), role));
+        log.info("Role registry loaded {} roles", roles.size());
+    }
+
+    public Role getOrCreate(String name) {
+        Role role = roles.get(name);
+        if (role != null) {
+            return role;
+        }
+        createLock.lock();
+        try {
+            role = roles.get(name);
+            if (role == null) {
+                role = findOrInsert(name);
+                roles.put(name, role);
+            }
+            return role;
+        } finally {
+            createLock.unlock();
+        }
+    }
+
+    private Role findOrInsert(String name) {
+        try {
+            return requiresNew.execute(status -> roleRepository.findByName(name)
+                    .orElseGet(() -> roleRepository.saveAndFlush(new Role(null, name))));
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race against another node: the row exists now
+            log.info("Role {} was created concurrently, reloading it", name);
+            return requiresNew.execute(status -> roleRepository.findByName(name).orElseThrow(() -> e));
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.wcs.spring_data_jpa_project.service.core;
 
+import com.wcs.spring_data_jpa_project.dto.BatchRegistrationResult;
+import com.wcs.spring_data_jpa_project.dto.CursorPage;
+import com.wcs.spring_data_jpa_project.dto.EmailDomainCountDTO;
 import com.wcs.spring_data_jpa_project.dto.LoginRequest;
 import com.wcs.spring_data_jpa_project.dto.RegisterRequest;
 import com.wcs.spring_data_jpa_project.dto.UserDeptDTO;
+import com.wcs.spring_data_jpa_project.dto.UserListDTO;
 import com.wcs.spring_data_jpa_project.dto.UserSummaryDTO;
 import com.wcs.spring_data_jpa_project.exception.*;
 //import com.wcs.spring_data_jpa_project.jwt.JwtService;
@@ -10,19 +14,49 @@ import com.wcs.spring_data_jpa_project.jwt.JwtService;
 import com.wcs.spring_data_jpa_project.model.Department;
 import com.wcs.spring_data_jpa_project.model.Role;
 import com.wcs.spring_data_jpa_project.model.User;
+import com.wcs.spring_data_jpa_project.model.UserQueries;
+import com.wcs.spring_data_jpa_project.service.search.UserSearchIndex;
+import io.jsonwebtoken.JwtException;
 import jakarta.persistence.*;
 import jakarta.persistence.criteria.*;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
 import org.flywaydb.core.internal.util.StringUtils;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Metered
 @Transactional
 @Slf4j
 public class UserService {
@@ -31,10 +65,17 @@ public class UserService {
     private EntityManager entityManager;
 
     @Autowired
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+
+    // Registration hashes passwords before any transaction starts, then writes in one of these
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public UserService(PasswordEncoder passwordEncoder) {
-        this.passwordEncoder = passwordEncoder;
+    public UserService(PasswordHashingService passwordHashingService, PlatformTransactionManager transactionManager) {
+        this.passwordHashingService = passwordHashingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     @Autowired
@@ -43,67 +84,286 @@ public class UserService {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private EmailBloomFilter emailBloomFilter;
+
+    @Autowired
+    private EmailDomainCounter emailDomainCounter;
+
+    @Autowired
+    private Validator validator;
+
+    private static final int EMAIL_LOOKUP_CHUNK = 1000;
+    private static final int BATCH_INSERT_ATTEMPTS = 3;
+    private static final String DEFAULT_ROLE = "ROLE_USER";
 
+    @Value("${app.users.batch.max-size:50000}")
+    private int batchMaxSize;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int jdbcBatchSize;
+
+    @Value("${app.users.stream.fetch-size:500}")
+    private int streamFetchSize;
+
+    @Value("${app.users.stream.clear-interval:500}")
+    private int streamClearInterval;
+
+    @Value("${app.search.reconcile-overlap-ms:60000}")
+    private long searchReconcileOverlapMs;
+
+
+    /**
+     * SUPPORTS instead of the class-level REQUIRED: a transaction would take a pooled connection at
+     * begin and hold it while bcrypt runs (and queues), so the hash is computed first and only the
+     * insert runs in a transaction.
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
     public User registerUser(RegisterRequest request) {
         if (request == null || request.getEmail() == null) {
             log.error("Invalid registration request");
             throw new InvalidInputException("Registration request or email cannot be null");
         }
 
-        // Check if the email already exists in the system
-        String emailCheckQuery = "SELECT COUNT(u) FROM User u WHERE u.email = :email";
-        Long count = entityManager.createQuery(emailCheckQuery, Long.class)
-                .setParameter("email", request.getEmail())
-                .getSingleResult();
-
-        if (count != null && count > 0) {
-            log.error("Registration failed - Email already in use: {}", request.getEmail());
-            throw new DuplicateResourceException("Email already registered");
-        }
+        String passwordHash = passwordHashingService.encode(request.getPassword());
+        return transactionTemplate.execute(status -> insertUser(request, passwordHash));
+    }
 
+    private User insertUser(RegisterRequest request, String passwordHash) {
         // Create a new user
         User user = new User();
         user.setUserName(request.getUserName());
         user.setEmail(request.getEmail());
         user.setAddress(request.getAddress());
         user.setContact(request.getContact());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
+        user.setPassword(passwordHash);
 
-        // Assign role based on the provided role in request (default to "ROLE_USER" if not provided)
-        String roleName = request.getRole() != null ? request.getRole() : "ROLE_USER";
-
-        // Retrieve the role by name, or create it if it doesn't exist
-        Role role = entityManager.createQuery("SELECT r FROM Role r WHERE r.name = :roleName", Role.class)
-                .setParameter("roleName", roleName)
-                .getResultStream()
-                .findFirst()
-                .orElseGet(() -> {
-                    // Create new role if not found
-                    Role newRole = new Role();
-                    newRole.setName(roleName);
-                    entityManager.persist(newRole);
-                    return newRole;
-                });
+        // This endpoint is public, so the requested role is ignored: the role ends up in the JWT, and
+        // letting callers pick one would let anyone register as ROLE_ADMIN. Other roles are assigned on
+        // the admin-only batch path
+        Role role = roleRegistry.getOrCreate(DEFAULT_ROLE);
 
         // Set the role for the user
         user.setRoles(Collections.singleton(role));
 
-        // Persist the user in the database
-        entityManager.persist(user);
+        // Insert first and let the unique email constraint catch duplicates (one round trip, no check-then-insert race)
+        try {
+            entityManager.persist(user);
+            entityManager.flush();
+        } catch (PersistenceException e) {
+            if (isDuplicateEmail(e)) {
+                log.error("Registration failed - Email already in use: {}", request.getEmail());
+                throw new DuplicateResourceException("Email already registered");
+            }
+            throw e;
+        }
+        emailBloomFilter.put(user.getEmail());
+        emailDomainCounter.increment(user.getEmailDomain());
+        userSearchIndex.indexAfterCommit(user);
         log.info("User registered successfully: {}", user.getEmail());
 
-        // Send a welcome email
-        emailService.sendEmail(
+        // Queue the welcome email; it is sent by EmailOutboxDispatcher once this transaction commits
+        queueWelcomeEmail(user);
+
+        return user;
+    }
+
+    // Signup form check: most free emails are answered by the Bloom filter without touching MySQL.
+    // Only a hint (see EmailBloomFilter); until the filter's first rebuild every check goes to MySQL
+    @ReadOnlyQuery
+    public boolean isEmailAvailable(String email) {
+        if (email == null || email.isBlank()) {
+            throw new InvalidInputException("Email must not be null or empty");
+        }
+        if (emailBloomFilter.isReady() && !emailBloomFilter.mightContain(email)) {
+            return true;
+        }
+        Long count = entityManager.createNamedQuery(UserQueries.COUNT_BY_EMAIL, Long.class)
+                .setParameter("email", email)
+                .getSingleResult();
+        return count == 0;
+    }
+
+    // Periodic so emails registered on other nodes (and deleted users) catch up
+    @Scheduled(fixedDelayString = "${app.users.email-filter.rebuild-interval-ms:600000}",
+            initialDelayString = "${app.users.email-filter.rebuild-interval-ms:600000}")
+    @ReadOnlyQuery
+    public void rebuildEmailFilter() {
+        long count = entityManager.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult();
+        try (Stream<String> emails = entityManager.createQuery("SELECT u.email FROM User u WHERE u.email IS NOT NULL", String.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .getResultStream()) {
+            emailBloomFilter.rebuild(count, emails.iterator());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @ReadOnlyQuery
+    public void rebuildEmailFilterAtStartup() {
+        rebuildEmailFilter();
+    }
+
+    // Only the email unique key; NOT NULL, FK or unnamed violations are rethrown as they are
+    private boolean isDuplicateEmail(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String name = violation.getConstraintName();
+                return name != null && name.toLowerCase().contains(User.EMAIL_UNIQUE_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Register many users in one call. Duplicates are found with one IN query per chunk, passwords are
+     * hashed in parallel and rows are inserted with JDBC batching (User ids come from a pooled sequence,
+     * so Hibernate can batch them). Every input row gets its own result in the same order. As in
+     * registerUser, hashing runs outside any transaction: the lookup and the inserts each get a short one.
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<BatchRegistrationResult> registerUsersBatch(List<RegisterRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            log.error("Empty batch registration request");
+            throw new InvalidInputException("Batch registration request must contain at least one user");
+        }
+        if (requests.size() > batchMaxSize) {
+            throw new InvalidInputException("Batch registration accepts at most " + batchMaxSize + " users");
+        }
+        log.info("Batch registration of {} users", requests.size());
+
+        // Candidates by lower-cased email: uk_user_email compares emails case-insensitively
+        BatchRegistrationResult[] results = new BatchRegistrationResult[requests.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            RegisterRequest request = requests.get(i);
+            String invalid = request == null ? "Request is empty" : violations(newUser(request, request.getPassword()));
+            if (invalid != null) {
+                results[i] = BatchRegistrationResult.rejected(i, request == null ? null : request.getEmail(),
+                        BatchRegistrationResult.Status.INVALID, invalid);
+            } else if (candidates.putIfAbsent(request.getEmail().toLowerCase(Locale.ROOT), i) != null) {
+                results[i] = BatchRegistrationResult.rejected(i, request.getEmail(),
+                        BatchRegistrationResult.Status.DUPLICATE, "Email repeated in this batch");
+            }
+        }
+
+        // Set-wise duplicate check against the table
+        readOnlyTransaction.executeWithoutResult(status -> rejectRegistered(candidates, results));
+
+        // bcrypt dominates the cost of a registration, so spread it over the bcrypt pool
+        List<Integer> hashed = new ArrayList<>(candidates.values());
+        List<String> encoded = passwordHashingService.encodeAll(
+                hashed.stream().map(i -> requests.get(i).getPassword()).collect(Collectors.toList()));
+        Map<Integer, String> hashes = new HashMap<>();
+        for (int k = 0; k < hashed.size(); k++) {
+            hashes.put(hashed.get(k), encoded.get(k));
+        }
+
+        // A registration that commits one of these emails after the lookup makes the insert fail on
+        // uk_user_email and rolls the batch back; those rows become DUPLICATE and the rest is inserted again
+        for (int attempt = 1; ; attempt++) {
+            List<Integer> accepted = new ArrayList<>(candidates.values());
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertBatch(requests, accepted, hashes, results));
+                break;
+            } catch (RuntimeException e) {
+                if (!isDuplicateEmail(e) || attempt == BATCH_INSERT_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("Batch registration hit an email registered concurrently, retrying without it (attempt {})", attempt);
+                readOnlyTransaction.executeWithoutResult(status -> rejectRegistered(candidates, results));
+            }
+        }
+
+        log.info("Batch registration finished: {} created, {} rejected", candidates.size(), requests.size() - candidates.size());
+        return Arrays.asList(results);
+    }
+
+    // Bean Validation messages of the user as it would be inserted, or null when it is valid
+    private String violations(User user) {
+        Set<ConstraintViolation<User>> violations = validator.validate(user);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    // Drops the candidates whose email is already in the table and marks their rows DUPLICATE
+    private void rejectRegistered(Map<String, Integer> candidates, BatchRegistrationResult[] results) {
+        List<String> emails = new ArrayList<>(candidates.keySet());
+        for (int from = 0; from < emails.size(); from += EMAIL_LOOKUP_CHUNK) {
+            List<String> chunk = emails.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK, emails.size()));
+            entityManager.createQuery("SELECT u.email FROM User u WHERE u.email IN :emails", String.class)
+                    .setParameter("emails", chunk)
+                    .getResultList()
+                    .forEach(existing -> {
+                        Integer index = candidates.remove(existing.toLowerCase(Locale.ROOT));
+                        if (index != null) {
+                            results[index] = BatchRegistrationResult.rejected(index, existing,
+                                    BatchRegistrationResult.Status.DUPLICATE, "Email already registered");
+                        }
+                    });
+        }
+    }
+
+    private User newUser(RegisterRequest request, String password) {
+        User user = new User();
+        user.setUserName(request.getUserName());
+        user.setEmail(request.getEmail());
+        user.setAddress(request.getAddress());
+        user.setContact(request.getContact());
+        user.setPassword(password);
+        return user;
+    }
+
+    private void insertBatch(List<RegisterRequest> requests, List<Integer> accepted, Map<Integer, String> hashes,
+                             BatchRegistrationResult[] results) {
+        int pending = 0;
+        Map<String, Long> domainDeltas = new HashMap<>();
+        for (int i : accepted) {
+            RegisterRequest request = requests.get(i);
+            String roleName = request.getRole() != null ? request.getRole() : DEFAULT_ROLE;
+
+            User user = newUser(request, hashes.get(i));
+            user.setRoles(Collections.singleton(roleRegistry.getOrCreate(roleName)));
+
+            entityManager.persist(user);
+            emailBloomFilter.put(user.getEmail());
+            if (user.getEmailDomain() != null) {
+                domainDeltas.merge(user.getEmailDomain(), 1L, Long::sum);
+            }
+            userSearchIndex.indexAfterCommit(user);
+            queueWelcomeEmail(user);
+            results[i] = BatchRegistrationResult.created(i, user.getEmail(), user.getId());
+
+            // Send the JDBC batch and drop the managed users so the persistence context stays small
+            if (++pending % jdbcBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        emailDomainCounter.addAll(domainDeltas);
+    }
+
+    private void queueWelcomeEmail(User user) {
+        emailService.enqueueEmail(
                 user.getEmail(),
                 "Welcome to Our App!",
                 "Hi " + user.getUserName() + ",\n\nThanks for registering with us. We're glad to have you!"
         );
-
-        return user;
     }
 
 
 
+    @ReadOnlyQuery
     public String loginUser(LoginRequest request) {
         if (request == null || request.getEmail() == null || request.getPassword() == null) {
             log.error("Invalid login request: {}", request);
@@ -111,17 +371,18 @@ public class UserService {
         }
 
         try {
-            String jpql = "SELECT u FROM User u WHERE u.email = :email";
-            TypedQuery<User> query = entityManager.createQuery(jpql, User.class);
+            // Login only needs the roles for the token claims
+            TypedQuery<User> query = withGraph(entityManager.createNamedQuery(UserQueries.BY_EMAIL, User.class), User.WITH_ROLES);
             query.setParameter("email", request.getEmail());
             User user = query.getSingleResult();
 
-            boolean matched = passwordEncoder.matches(request.getPassword(), user.getPassword());
+            boolean matched = passwordHashingService.matches(request.getPassword(), user.getPassword());
             if (matched) {
                 log.info("Login successful for: {}", request.getEmail());
 
                 // ✅ Generate JWT token
-                String token = jwtService.generateToken(user.getEmail());
+                List<String> roles = user.getRoles().stream().map(Role::getName).collect(Collectors.toList());
+                String token = jwtService.generateToken(user.getEmail(), roles);
                 return token;
             } else {
                 log.warn("Login failed - Incorrect password for: {}", request.getEmail());
@@ -132,26 +393,92 @@ public class UserService {
             throw new InvalidCredentialsException("Invalid email or password");
         }
     }
-//    Fuzzy Search is not done in this method means for searching we have to enter full word
-    public List<User> dynamicSearch(String keyword) {
+    public void logout(String token) {
+        if (token == null || token.isBlank()) {
+            throw new InvalidInputException("Bearer token is required to logout");
+        }
+        try {
+            jwtService.revokeToken(token);
+        } catch (JwtException e) {
+            throw new InvalidCredentialsException("Token is invalid or already revoked");
+        }
+        log.info("Token revoked on logout");
+    }
+
+    // Full-text search served by the local Lucene index: ranked, typo tolerant and paginated
+    @ReadOnlyQuery
+    public List<User> searchUsers(String keyword, int pageNo, int pageSize) {
         if (keyword == null || keyword.trim().isEmpty()) {
             log.error("Search keyword is invalid: {}", keyword);
             throw new InvalidInputException("Search keyword must not be null or empty");
         }
+        if (pageNo < 1 || pageSize < 1 || pageSize > KeysetCursor.MAX_PAGE_SIZE) {
+            throw new InvalidInputException("Page must be >= 1 and size between 1 and " + KeysetCursor.MAX_PAGE_SIZE);
+        }
 
-        log.debug("Performing dynamic search with keyword: {}", keyword);
+        log.debug("Searching users in index with keyword: {}, page: {}, size: {}", keyword, pageNo, pageSize);
+        List<Long> ids = userSearchIndex.search(keyword, pageNo, pageSize);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // Load the hits in one query and put them back in relevance order
+        Map<Long, User> byId = withGraph(entityManager.createNamedQuery(UserQueries.BY_IDS, User.class), User.WITH_ROLES_AND_DEPARTMENT)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
 
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<User> cq = cb.createQuery(User.class);
-        Root<User> root = cq.from(User.class);
+    @ReadOnlyQuery
+    public long rebuildSearchIndex() {
+        log.info("Rebuilding user search index from database");
+        return userSearchIndex.rebuild(() -> entityManager.createNamedQuery(UserQueries.SEARCH_INDEX_ROWS, Object[].class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .getResultStream());
+    }
+
+    /**
+     * Catch the search index up with the users changed since its checkpoint: writes made on other
+     * nodes, and after-commit index writes lost to a crash. The window reaches back a bit before the
+     * checkpoint, since updatedAt is set at flush and the transaction may commit later. Users deleted
+     * on another node can't be found this way; searchUsers skips their ids and the next rebuild drops them.
+     */
+    @Scheduled(fixedDelayString = "${app.search.reconcile-interval-ms:60000}",
+            initialDelayString = "${app.search.reconcile-interval-ms:60000}")
+    @ReadOnlyQuery
+    public long reconcileSearchIndex() {
+        Long checkpoint = userSearchIndex.checkpoint();
+        if (checkpoint == null) {
+            return rebuildSearchIndex();
+        }
+        LocalDateTime since = LocalDateTime.ofInstant(Instant.ofEpochMilli(checkpoint - searchReconcileOverlapMs), ZoneId.systemDefault());
+        return userSearchIndex.refresh(() -> entityManager.createNamedQuery(UserQueries.SEARCH_INDEX_ROWS_CHANGED_SINCE, Object[].class)
+                .setParameter("since", since)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize)
+                .getResultStream());
+    }
+
+    // First boot or a wiped index directory rebuilds; otherwise catch up with what changed while down
+    @EventListener(ApplicationReadyEvent.class)
+    @ReadOnlyQuery
+    public void reconcileSearchIndexAtStartup() {
+        reconcileSearchIndex();
+    }
 
-        Predicate userNamePredicate = cb.like(cb.lower(root.get("userName")), "%" + keyword.toLowerCase() + "%");
-        Predicate emailPredicate = cb.like(cb.lower(root.get("email")), "%" + keyword.toLowerCase() + "%");
-        Predicate addressPredicate = cb.like(cb.lower(root.get("address")), "%" + keyword.toLowerCase() + "%");
+//    Fuzzy Search is not done in this method means for searching we have to enter full word
+    @ReadOnlyQuery
+    public List<User> dynamicSearch(String keyword) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            log.error("Search keyword is invalid: {}", keyword);
+            throw new InvalidInputException("Search keyword must not be null or empty");
+        }
 
-        cq.where(cb.or(userNamePredicate, emailPredicate, addressPredicate));
+        log.debug("Performing dynamic search with keyword: {}", keyword);
 
-        return entityManager.createQuery(cq).getResultList();
+        return withGraph(entityManager.createNamedQuery(UserQueries.SEARCH_LIKE, User.class), User.WITH_ROLES_AND_DEPARTMENT)
+                .setParameter("pattern", "%" + keyword.toLowerCase() + "%")
+                .getResultList();
     }
 
     public void saveUser(User user) {
@@ -161,11 +488,16 @@ public class UserService {
         }
         log.info("Saving user: {}", user.getUserName());
         entityManager.persist(user);
+        emailBloomFilter.put(user.getEmail());
+        emailDomainCounter.increment(user.getEmailDomain());
+        userSearchIndex.indexAfterCommit(user);
     }
 
+    @ReadOnlyQuery
     public User getUserById(Long id) {
         log.debug("Fetching user by ID: {}", id);
-        User user = entityManager.find(User.class, id);
+        User user = entityManager.find(User.class, id,
+                Map.of(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(User.WITH_ROLES_AND_DEPARTMENT)));
         if (user == null) {
             log.error("User with ID {} not found", id);
             throw new UserNotFoundException("User with ID " + id + " not found");
@@ -185,8 +517,25 @@ public class UserService {
             throw new UserNotFoundException("Cannot update: User with ID " + user.getId() + " does not exist");
         }
 
+        // Outstanding tokens carry the old credentials/roles, so revoke them when either changes
+        boolean credentialsChanged = !Objects.equals(existingUser.getPassword(), user.getPassword())
+                || !Objects.equals(existingUser.getRoles(), user.getRoles());
+        String previousEmail = existingUser.getEmail();
+        String previousDomain = existingUser.getEmailDomain();
+
         log.info("Updating user: {}", user.getUserName());
-        return entityManager.merge(user);
+        User merged = entityManager.merge(user);
+        emailBloomFilter.put(merged.getEmail());
+        String newDomain = User.domainOf(merged.getEmail());
+        if (!Objects.equals(previousDomain, newDomain)) {
+            emailDomainCounter.decrement(previousDomain);
+            emailDomainCounter.increment(newDomain);
+        }
+        if (credentialsChanged) {
+            jwtService.revokeAllTokens(previousEmail);
+        }
+        userSearchIndex.indexAfterCommit(merged);
+        return merged;
     }
 
     public void deleteUser(Long id) {
@@ -197,6 +546,9 @@ public class UserService {
             throw new UserNotFoundException("User with ID " + id + " not found for deletion");
         }
         entityManager.remove(user);
+        emailDomainCounter.decrement(user.getEmailDomain());
+        userSearchIndex.removeAfterCommit(id);
+        jwtService.revokeAllTokens(user.getEmail());
         log.info("User with ID {} deleted successfully", id);
     }
 
@@ -219,24 +571,66 @@ public class UserService {
         return entityManager.merge(user);
     }
 
+    @ReadOnlyQuery
     public List<User> getAllUsers() {
         log.debug("Fetching all users");
-        return entityManager.createQuery("SELECT u FROM User u", User.class).getResultList();
+        return withGraph(entityManager.createNamedQuery(UserQueries.ALL, User.class), User.WITH_ROLES_AND_DEPARTMENT)
+                .getResultList();
+    }
+
+    // Streaming variants of getAllUsers/getUsersNative: rows are handed to the sink one at a time and the
+    // persistence context is cleared every few hundred rows, so heap stays flat whatever the table size.
+    @ReadOnlyQuery
+    public long streamAllUsers(Consumer<User> sink) {
+        log.debug("Streaming all users");
+        // Department is joined; roles are batch-loaded (a collection fetch would break row-by-row streaming)
+        TypedQuery<User> query = withGraph(entityManager.createNamedQuery(UserQueries.ALL, User.class), User.WITH_DEPARTMENT);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return drain(query.getResultStream(), sink);
+    }
+
+    @SuppressWarnings("unchecked")
+    @ReadOnlyQuery
+    public long streamUsersNative(Consumer<User> sink) {
+        log.debug("Streaming all users using native SQL");
+        Query query = entityManager.createNativeQuery("SELECT * FROM User", User.class);
+        query.setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize);
+        query.setHint(HibernateHints.HINT_READ_ONLY, true);
+        return drain((Stream<User>) query.getResultStream(), sink);
+    }
+
+    private long drain(Stream<User> rows, Consumer<User> sink) {
+        long count = 0;
+        try (Stream<User> stream = rows) {
+            Iterator<User> it = stream.iterator();
+            while (it.hasNext()) {
+                sink.accept(it.next());
+                if (++count % streamClearInterval == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        log.debug("Streamed {} users", count);
+        return count;
     }
 
-    public List<User> getUsersByCity(String city) {
+    @ReadOnlyQuery
+    public List<UserListDTO> getUsersByCity(String city) {
         log.debug("Fetching users by city: {}", city);
         if (city == null || city.trim().isEmpty()) {
             log.error("City parameter is invalid: {}", city);
             throw new InvalidInputException("City must not be null or empty");
         }
 
-        String jpql = "SELECT u FROM User u WHERE u.address = :city";
-        return entityManager.createQuery(jpql, User.class)
+        return entityManager.createNamedQuery(UserQueries.LIST_BY_CITY, UserListDTO.class)
                 .setParameter("city", city)
                 .getResultList();
     }
 
+    // Served from the per-domain counters (EmailDomainCounter), not by scanning User. Exact domain match:
+    // "example.com" or "@example.com", case-insensitive; subdomains are counted separately.
+    @ReadOnlyQuery
     public Long countUsersByEmailDomain(String domain) {
         log.debug("Counting users by email domain: {}", domain);
         if (domain == null || domain.trim().isEmpty()) {
@@ -244,12 +638,26 @@ public class UserService {
             throw new InvalidInputException("Domain must not be null or empty");
         }
 
-        String jpql = "SELECT COUNT(u) FROM User u WHERE u.email LIKE :domain";
-        return entityManager.createQuery(jpql, Long.class)
-                .setParameter("domain", "%" + domain)
-                .getSingleResult();
+        String normalized = domain.trim().toLowerCase();
+        if (normalized.startsWith("@")) {
+            normalized = normalized.substring(1);
+        }
+        return emailDomainCounter.count(normalized);
+    }
+
+    @ReadOnlyQuery
+    public List<EmailDomainCountDTO> getTopEmailDomains(int limit) {
+        if (limit < 1 || limit > 1000) {
+            throw new InvalidInputException("Limit must be between 1 and 1000");
+        }
+        return emailDomainCounter.top(limit);
     }
 
+    public long rebuildEmailDomainCounts() {
+        return emailDomainCounter.rebuild();
+    }
+
+    @ReadOnlyQuery
     public List<User> getUsersNative() {
         log.debug("Fetching all users using native SQL");
         String sql = "SELECT * FROM User";
@@ -257,162 +665,260 @@ public class UserService {
         return query.getResultList();
     }
 
-    public List<User> getUsersByCitySorted(String city) {
+    @ReadOnlyQuery
+    public List<UserListDTO> getUsersByCitySorted(String city) {
         log.debug("Fetching sorted users by city: {}", city);
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<User> query = cb.createQuery(User.class);
-        Root<User> root = query.from(User.class);
-
-        query.select(root)
-                .where(cb.equal(root.get("address"), city))
-                .orderBy(cb.desc(root.get("userName")));
+        return entityManager.createNamedQuery(UserQueries.LIST_BY_CITY_SORTED, UserListDTO.class)
+                .setParameter("city", city)
+                .getResultList();
+    }
 
-        return entityManager.createQuery(query).getResultList();
+    /**
+     * Checked before a city-wide email update is queued. Every user of the city gets the same address and
+     * emails are unique (uk_user_email), so the update can only apply to a city with at most one user,
+     * and only if no other user already has the address. Otherwise every chunk would fail on the key.
+     */
+    @ReadOnlyQuery
+    public void checkEmailUpdateByCity(String city, String newEmail) {
+        List<Object[]> users = nextCityChunk(city, 0, 2);
+        if (users.size() > 1) {
+            log.error("Email update rejected - more than one user in city: {}", city);
+            throw new DuplicateResourceException("More than one user lives in " + city
+                    + "; emails are unique, so they cannot all be changed to " + newEmail);
+        }
+        if (users.isEmpty()) {
+            return;
+        }
+        Long taken = entityManager.createNamedQuery(UserQueries.COUNT_BY_EMAIL_OTHER_THAN, Long.class)
+                .setParameter("email", newEmail)
+                .setParameter("id", users.get(0)[0])
+                .getSingleResult();
+        if (taken > 0) {
+            log.error("Email update rejected - email already in use: {}", newEmail);
+            throw new DuplicateResourceException("Email already registered");
+        }
     }
 
-    public int updateEmailsByCity(String city, String newEmail) {
-        log.info("Updating emails in city: {} to {}", city, newEmail);
+    /**
+     * One chunk of a city-wide email update: the next {@code limit} users of the city after
+     * {@code afterId}, in id order. Runs in its own short transaction so row locks are held for one
+     * chunk only; returns the ids that were updated (empty when the city is done).
+     */
+    public List<Long> updateEmailsByCityChunk(String city, String newEmail, long afterId, int limit) {
         if (city == null || newEmail == null) {
             log.error("Invalid input for email update: city={}, email={}", city, newEmail);
             throw new InvalidInputException("City and email must not be null");
         }
 
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaUpdate<User> update = cb.createCriteriaUpdate(User.class);
-        Root<User> root = update.from(User.class);
-
-        update.set("email", newEmail)
-                .where(cb.equal(root.get("address"), city));
-
-        return entityManager.createQuery(update).executeUpdate();
+        List<Object[]> rows = nextCityChunk(city, afterId, limit);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = rows.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+        String newDomain = User.domainOf(newEmail);
+        entityManager.createNamedQuery(UserQueries.UPDATE_EMAIL_BY_IDS)
+                .setParameter("email", newEmail)
+                .setParameter("emailDomain", newDomain)
+                .setParameter("updatedAt", LocalDateTime.now())
+                .setParameter("ids", ids)
+                .executeUpdate();
+
+        // The bulk UPDATE bypasses the entity callbacks (hence updatedAt above), so move the counts here
+        emailDomainCounter.addAll(domainDeltas(rows, -1));
+        emailDomainCounter.add(newDomain, ids.size());
+        emailBloomFilter.put(newEmail);
+        for (Object[] row : rows) {
+            userSearchIndex.indexAfterCommit((Long) row[0], (String) row[1], newEmail, (String) row[3]);
+        }
+        log.debug("Updated emails of {} users in {} (ids {}..{})", ids.size(), city, ids.get(0), ids.get(ids.size() - 1));
+        return ids;
     }
 
-    public int deleteUsersByCity(String city) {
-        log.warn("Deleting users in city: {}", city);
+    // Delete counterpart of updateEmailsByCityChunk
+    public List<Long> deleteUsersByCityChunk(String city, long afterId, int limit) {
         if (city == null || city.isBlank()) {
             log.error("City must not be blank for deleteUsersByCity");
             throw new InvalidInputException("City must not be null or blank");
         }
 
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaDelete<User> delete = cb.createCriteriaDelete(User.class);
-        Root<User> root = delete.from(User.class);
+        List<Object[]> rows = nextCityChunk(city, afterId, limit);
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = rows.stream().map(row -> (Long) row[0]).collect(Collectors.toList());
+        // Hibernate also clears the user_roles rows of these users
+        entityManager.createNamedQuery(UserQueries.DELETE_BY_IDS)
+                .setParameter("ids", ids)
+                .executeUpdate();
+        emailDomainCounter.addAll(domainDeltas(rows, -1));
+
+        for (Object[] row : rows) {
+            userSearchIndex.removeAfterCommit((Long) row[0]);
+            jwtService.revokeAllTokens((String) row[2]);
+        }
+        log.debug("Deleted {} users in {} (ids {}..{})", ids.size(), city, ids.get(0), ids.get(ids.size() - 1));
+        return ids;
+    }
+
+    // (id, userName, email, address) of the next chunk; locks nothing, the update/delete by id does
+    private List<Object[]> nextCityChunk(String city, long afterId, int limit) {
+        return entityManager.createNamedQuery(UserQueries.CITY_CHUNK, Object[].class)
+                .setParameter("city", city)
+                .setParameter("afterId", afterId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
 
-        delete.where(cb.equal(root.get("address"), city));
-        return entityManager.createQuery(delete).executeUpdate();
+    private Map<String, Long> domainDeltas(List<Object[]> rows, long perUser) {
+        Map<String, Long> deltas = new HashMap<>();
+        for (Object[] row : rows) {
+            String domain = User.domainOf((String) row[2]);
+            if (domain != null) {
+                deltas.merge(domain, perUser, Long::sum);
+            }
+        }
+        return deltas;
     }
 
-    public List<User> getFilteredUsers(String city, String contact) {
+    @ReadOnlyQuery
+    public List<UserListDTO> getFilteredUsers(String city, String contact) {
         log.debug("Filtering users by city: {} and contact: {}", city, contact);
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<User> cq = cb.createQuery(User.class);
-        Root<User> root = cq.from(User.class);
-
-        Predicate finalPredicate = cb.conjunction(); //cb.conjunction() starts with a true predicate (like WHERE 1=1) to allow chaining.
+        boolean byCity = city != null && !city.isBlank();
+        boolean byContact = contact != null && !contact.isBlank();
 
-        if (city != null && !city.isBlank()) {
-            finalPredicate = cb.and(finalPredicate, cb.equal(root.get("address"), city));
+        // Each filter combination has its own precompiled query instead of a Criteria tree built per call
+        TypedQuery<UserListDTO> query = entityManager.createNamedQuery(UserQueries.filtered(byCity, byContact), UserListDTO.class);
+        if (byCity) {
+            query.setParameter("city", city);
         }
-        if (contact != null && !contact.isBlank()) {
-            finalPredicate = cb.and(finalPredicate, cb.equal(root.get("contact"), contact));
+        if (byContact) {
+            query.setParameter("contact", contact);
         }
-        cq.select(root).where(finalPredicate);
-        return entityManager.createQuery(cq).getResultList();
+        return query.getResultList();
     }
 
 
-    public List<User> getUsersSortedByNameAsc() {
+    @ReadOnlyQuery
+    public List<UserListDTO> getUsersSortedByNameAsc() {
         log.debug("Sorting users by name ascending");
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<User> cq = cb.createQuery(User.class);
-        Root<User> root = cq.from(User.class);
-
-        cq.orderBy(cb.asc(root.get("userName")));
-        return entityManager.createQuery(cq).getResultList();
+        return entityManager.createNamedQuery(UserQueries.LIST_SORTED_BY_NAME_ASC, UserListDTO.class).getResultList();
     }
 
-    public List<User> getUsersSortedByEmailDesc() {
+    @ReadOnlyQuery
+    public List<UserListDTO> getUsersSortedByEmailDesc() {
         log.debug("Sorting users by email descending");
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<User> cq = cb.createQuery(User.class);
-        Root<User> root = cq.from(User.class);
-
-        cq.orderBy(cb.desc(root.get("email")));
-        return entityManager.createQuery(cq).getResultList();
+        return entityManager.createNamedQuery(UserQueries.LIST_SORTED_BY_EMAIL_DESC, UserListDTO.class).getResultList();
     }
 
-    public List<User> getUsersPaginated(int pageNo, int pageSize) {
+    @ReadOnlyQuery
+    public List<UserListDTO> getUsersPaginated(int pageNo, int pageSize) {
         log.debug("Fetching users with pagination - page: {}, size: {}", pageNo, pageSize);
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<User> cq = cb.createQuery(User.class);
-        Root<User> root = cq.from(User.class);
-        cq.select(root);
+        return entityManager.createNamedQuery(UserQueries.LIST_PAGE, UserListDTO.class)
+                .setFirstResult((pageNo - 1) * pageSize)
+                .setMaxResults(pageSize)
+                .getResultList();
+    }
 
-        TypedQuery<User> query = entityManager.createQuery(cq);
-        query.setFirstResult((pageNo - 1) * pageSize);
-        query.setMaxResults(pageSize);
+    // Keyset variants of the listings above: each page seeks past the last (sortKey, id) instead of using OFFSET
+    @ReadOnlyQuery
+    public CursorPage<UserListDTO> getUsersPaginatedByCursor(String cursor, int pageSize) {
+        log.debug("Fetching users by cursor - cursor: {}, size: {}", cursor, pageSize);
+        return seekUsers("byId", UserQueries.SEEK_BY_ID_FIRST, UserQueries.SEEK_BY_ID_AFTER, null, null, cursor, pageSize);
+    }
 
-        return query.getResultList();
+    @ReadOnlyQuery
+    public CursorPage<UserListDTO> getUsersSortedByNameAscByCursor(String cursor, int pageSize) {
+        log.debug("Fetching users sorted by name ascending by cursor - cursor: {}, size: {}", cursor, pageSize);
+        return seekUsers("byNameAsc", UserQueries.SEEK_BY_NAME_ASC_FIRST, UserQueries.SEEK_BY_NAME_ASC_AFTER,
+                UserQueries.SEEK_BY_NAME_ASC_AFTER_NULL, UserListDTO::userName, cursor, pageSize);
     }
 
-    public List<User> getUsersWithDepartments() {
-        log.debug("Fetching users with department (INNER JOIN)");
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<User> cq = cb.createQuery(User.class);
-        Root<User> root = cq.from(User.class);
-        root.fetch("department", JoinType.INNER);
-        cq.select(root).distinct(true);
+    @ReadOnlyQuery
+    public CursorPage<UserListDTO> getUsersSortedByEmailDescByCursor(String cursor, int pageSize) {
+        log.debug("Fetching users sorted by email descending by cursor - cursor: {}, size: {}", cursor, pageSize);
+        return seekUsers("byEmailDesc", UserQueries.SEEK_BY_EMAIL_DESC_FIRST, UserQueries.SEEK_BY_EMAIL_DESC_AFTER,
+                UserQueries.SEEK_BY_EMAIL_DESC_AFTER_NULL, UserListDTO::email, cursor, pageSize);
+    }
+
+    // sortKey is null for the id-only listing; the *_AFTER queries seek past (lastKey, lastId), the
+    // *_AFTER_NULL ones past (NULL, lastId) when the previous page ended on a row without a sort key
+    private CursorPage<UserListDTO> seekUsers(String listing, String firstPageQuery, String afterQuery, String afterNullQuery,
+                                              Function<UserListDTO, String> sortKey, String cursor, int pageSize) {
+        KeysetCursor.checkPageSize(pageSize);
+        KeysetCursor after = KeysetCursor.decode(cursor, listing);
+
+        TypedQuery<UserListDTO> query;
+        if (after == null) {
+            query = entityManager.createNamedQuery(firstPageQuery, UserListDTO.class);
+        } else if (sortKey == null || after.lastKey() == null) {
+            query = entityManager.createNamedQuery(sortKey == null ? afterQuery : afterNullQuery, UserListDTO.class)
+                    .setParameter("lastId", after.lastId());
+        } else {
+            query = entityManager.createNamedQuery(afterQuery, UserListDTO.class)
+                    .setParameter("lastId", after.lastId())
+                    .setParameter("lastKey", after.lastKey());
+        }
+
+        // Read one extra row to know whether another page exists
+        List<UserListDTO> rows = query
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+
+        if (rows.size() <= pageSize) {
+            return new CursorPage<>(rows, null);
+        }
+        List<UserListDTO> page = rows.subList(0, pageSize);
+        UserListDTO last = page.get(pageSize - 1);
+        String lastKey = sortKey == null ? null : sortKey.apply(last);
+        return new CursorPage<>(new ArrayList<>(page), new KeysetCursor(listing, last.id(), lastKey).encode());
+    }
 
-        return entityManager.createQuery(cq).getResultList();
+    @ReadOnlyQuery
+    public List<UserListDTO> getUsersWithDepartments() {
+        log.debug("Fetching users with department (INNER JOIN)");
+        return entityManager.createNamedQuery(UserQueries.LIST_WITH_DEPARTMENT, UserListDTO.class).getResultList();
     }
 
-    public List<User> getUsersByDepartmentName(String deptName) {
+    @ReadOnlyQuery
+    public List<UserListDTO> getUsersByDepartmentName(String deptName) {
         log.debug("Fetching users by department name: {}", deptName);
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<User> cq = cb.createQuery(User.class);
-        Root<User> root = cq.from(User.class);
-        Join<User, Department> join = root.join("department");
-
-        cq.where(cb.equal(join.get("deptName"), deptName));
-        return entityManager.createQuery(cq).getResultList();
+        return entityManager.createNamedQuery(UserQueries.LIST_BY_DEPARTMENT_NAME, UserListDTO.class)
+                .setParameter("deptName", deptName)
+                .getResultList();
     }
 
-    public List<User> getUsersSortedByDepartmentName() {
+    @ReadOnlyQuery
+    public List<UserListDTO> getUsersSortedByDepartmentName() {
         log.debug("Sorting users by department name descending");
-        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<User> cq = cb.createQuery(User.class);
-        Root<User> root = cq.from(User.class);
-        Join<User, Department> join = root.join("department");
-
-        cq.select(root).orderBy(cb.desc(join.get("deptName")));
-        return entityManager.createQuery(cq).getResultList();
+        return entityManager.createNamedQuery(UserQueries.LIST_SORTED_BY_DEPARTMENT_NAME, UserListDTO.class).getResultList();
     }
 
+    @ReadOnlyQuery
     public List<UserSummaryDTO> getUserSummary() {
         log.debug("Fetching user summary using DTO projection");
-
-        String jpql = "SELECT new com.wcs.spring_data_jpa_project.dto.UserSummaryDTO(u.userName, u.email, d.deptName) " +
-                "FROM User u JOIN u.department d";
-
-        return entityManager.createQuery(jpql, UserSummaryDTO.class)
+        return entityManager.createNamedQuery(UserQueries.SUMMARY, UserSummaryDTO.class)
                 .getResultList();
     }
 
 
+    @ReadOnlyQuery
     public List<UserSummaryDTO> getUserSummaryByCity(String city) {
         log.debug("Fetching user summary by city: {}", city);
-        String jpql = "SELECT new com.wcs.spring_data_jpa_project.dto.UserSummaryDTO(u.userName, u.email) " +
-                "FROM User u WHERE u.address = :city";
-        return entityManager.createQuery(jpql, UserSummaryDTO.class)
+        return entityManager.createNamedQuery(UserQueries.SUMMARY_BY_CITY, UserSummaryDTO.class)
                 .setParameter("city", city)
                 .getResultList();
     }
 
+    @ReadOnlyQuery
     public List<UserDeptDTO> getUserDepartmentDetails() {
         log.debug("Fetching user-department DTO projection");
-        String jpql = "SELECT new com.wcs.spring_data_jpa_project.dto.UserDeptDTO(u.userName, u.email, d.deptName) " +
-                "FROM User u JOIN u.department d";
-        return entityManager.createQuery(jpql, UserDeptDTO.class).getResultList();
+        return entityManager.createNamedQuery(UserQueries.DEPARTMENT_DETAILS, UserDeptDTO.class).getResultList();
+    }
+
+
+    // Opt a query into one of the named fetch plans declared on User
+    private <T> TypedQuery<T> withGraph(TypedQuery<T> query, String graphName) {
+        return query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, entityManager.getEntityGraph(graphName));
     }
 
 }
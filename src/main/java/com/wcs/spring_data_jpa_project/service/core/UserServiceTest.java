@@ -1,7 +0,0 @@
-package com.wcs.spring_data_jpa_project.service.core;
-
-// I have to implement that Test Junit
-class UserServiceTest{
-
-}
-
@@ -0,0 +1,339 @@
+package com.wcs.spring_data_jpa_project.service.search;
+
+import com.wcs.spring_data_jpa_project.model.User;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Local Lucene index over User.userName, email and address, used by /users/search instead of
+ * LIKE '%kw%' scans. Writes become searchable on the next near-real-time refresh and are
+ * committed to disk in the background; rebuild(...) recreates it from the database and refresh(...)
+ * re-reads the rows changed since the last checkpoint (kept in the index's commit data).
+ * <p>
+ * While a rebuild or refresh reads the database, after-commit writes are held back and applied once
+ * it is done: a row it read before such a write committed must not overwrite it (or bring back a
+ * deleted user). Searches keep using the previous view of the index until the load has finished.
+ */
+@Component
+@Slf4j
+public class UserSearchIndex {
+
+    private static final String ID = "id";
+    private static final String CHECKPOINT = "checkpoint";
+    private static final String[] FIELDS = {"userName", "email", "address"};
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ScheduledExecutorService committer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "user-search-commit");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // Locks rather than synchronized: loads run JDBC reads, possibly on virtual threads
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // Writes that arrived during a load, by user id (null document: removed); guarded by writeLock
+    private Map<Long, Document> heldWrites;
+
+    public UserSearchIndex(@Value("${app.search.index-dir:./data/user-index}") String indexDir,
+                           @Value("${app.search.commit-interval-ms:5000}") long commitIntervalMs) throws IOException {
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+        this.writer = new IndexWriter(FSDirectory.open(Path.of(indexDir)), config);
+        this.searcherManager = new SearcherManager(writer, null);
+        committer.scheduleWithFixedDelay(this::commitQuietly, commitIntervalMs, commitIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("User search index opened at {} with {} documents", indexDir, writer.getDocStats().numDocs);
+    }
+
+    // Start (epoch ms) of the last completed rebuild/refresh: every change before it is in the index.
+    // Null before the first rebuild, or after one that failed halfway.
+    public Long checkpoint() {
+        for (Map.Entry<String, String> entry : writer.getLiveCommitData()) {
+            if (CHECKPOINT.equals(entry.getKey())) {
+                return Long.valueOf(entry.getValue());
+            }
+        }
+        return null;
+    }
+
+    // Index/remove once the surrounding transaction commits, so rolled back writes never show up in search
+    public void indexAfterCommit(User user) {
+        Document doc = toDocument(user.getId(), user.getUserName(), user.getEmail(), user.getAddress());
+        runAfterCommit(() -> write(user.getId(), doc));
+    }
+
+    public void indexAfterCommit(Long id, String userName, String email, String address) {
+        Document doc = toDocument(id, userName, email, address);
+        runAfterCommit(() -> write(id, doc));
+    }
+
+    public void removeAfterCommit(Long id) {
+        runAfterCommit(() -> write(id, null));
+    }
+
+    /**
+     * Replace the whole index with the rows of (id, userName, email, address) the supplier streams.
+     * The stream is opened after concurrent writes start being held, so none of them can be older
+     * than what it reads.
+     */
+    public long rebuild(Supplier<Stream<Object[]>> rows) {
+        long count = load(rows, true);
+        log.info("User search index rebuilt with {} documents", count);
+        return count;
+    }
+
+    /**
+     * Re-index the streamed rows (users changed since {@link #checkpoint()}), leaving the rest as is.
+     */
+    public long refresh(Supplier<Stream<Object[]>> rows) {
+        long count = load(rows, false);
+        log.debug("User search index refreshed {} documents", count);
+        return count;
+    }
+
+    /**
+     * Relevance-ranked ids for the keyword. Every keyword term must match some field, either
+     * exactly, as a prefix, or within a small edit distance (typos).
+     */
+    public List<Long> search(String keyword, int pageNo, int pageSize) {
+        List<String> terms = analyze(keyword);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            BooleanQuery.Builder anyField = new BooleanQuery.Builder();
+            for (String field : FIELDS) {
+                Term t = new Term(field, term);
+                anyField.add(new BoostQuery(new TermQuery(t), 3f), BooleanClause.Occur.SHOULD);
+                anyField.add(new BoostQuery(new PrefixQuery(t), 2f), BooleanClause.Occur.SHOULD);
+                if (term.length() > 2) {
+                    anyField.add(new FuzzyQuery(t, term.length() > 5 ? 2 : 1), BooleanClause.Occur.SHOULD);
+                }
+            }
+            query.add(anyField.build(), BooleanClause.Occur.MUST);
+        }
+
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            int offset = (pageNo - 1) * pageSize;
+            ScoreDoc[] hits = searcher.search(query.build(), offset + pageSize).scoreDocs;
+            StoredFields stored = searcher.storedFields();
+            List<Long> ids = new ArrayList<>();
+            for (int i = offset; i < hits.length; i++) {
+                ids.add(Long.valueOf(stored.document(hits[i].doc).get(ID)));
+            }
+            return ids;
+        } catch (IOException e) {
+            throw new UncheckedIOException("User search failed", e);
+        } finally {
+            releaseQuietly(searcher);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        committer.shutdownNow();
+        searcherManager.close();
+        writer.close();
+        analyzer.close();
+    }
+
+    private long load(Supplier<Stream<Object[]>> rows, boolean replaceAll) {
+        loadLock.lock();
+        try {
+            long startedAt = System.currentTimeMillis();
+            writeLock.lock();
+            try {
+                heldWrites = new LinkedHashMap<>();
+                if (replaceAll) {
+                    // A half-built index committed by a crash or a failed load must not look complete
+                    writer.setLiveCommitData(Map.<String, String>of().entrySet());
+                    writer.deleteAll();
+                }
+            } catch (IOException e) {
+                heldWrites = null;
+                throw new UncheckedIOException("Failed to clear user search index", e);
+            } finally {
+                writeLock.unlock();
+            }
+
+            long count = 0;
+            try (Stream<Object[]> stream = rows.get()) {
+                Iterator<Object[]> it = stream.iterator();
+                while (it.hasNext()) {
+                    Object[] row = it.next();
+                    Document doc = toDocument((Long) row[0], (String) row[1], (String) row[2], (String) row[3]);
+                    if (replaceAll) {
+                        writer.addDocument(doc);
+                    } else {
+                        apply((Long) row[0], doc);
+                    }
+                    count++;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to load user search index", e);
+            } finally {
+                releaseHeldWrites();
+            }
+
+            writer.setLiveCommitData(Map.of(CHECKPOINT, Long.toString(startedAt)).entrySet());
+            writer.commit();
+            searcherManager.maybeRefreshBlocking();
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to commit user search index", e);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    // Held writes are newer than anything the load read, so they go on top of it
+    private void releaseHeldWrites() {
+        writeLock.lock();
+        try {
+            for (Map.Entry<Long, Document> held : heldWrites.entrySet()) {
+                applyQuietly(held.getKey(), held.getValue());
+            }
+        } finally {
+            heldWrites = null;
+            writeLock.unlock();
+        }
+    }
+
+    private void write(Long id, Document doc) {
+        writeLock.lock();
+        try {
+            if (heldWrites != null) {
+                heldWrites.put(id, doc);
+                return;
+            }
+            applyQuietly(id, doc);
+        } finally {
+            writeLock.unlock();
+        }
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Failed to refresh user search index: {}", e.getMessage());
+        }
+    }
+
+    private void applyQuietly(Long id, Document doc) {
+        try {
+            apply(id, doc);
+        } catch (IOException e) {
+            log.error("Failed to {} user {} in search index: {}", doc == null ? "remove" : "index", id, e.getMessage(), e);
+        }
+    }
+
+    private void apply(Long id, Document doc) throws IOException {
+        Term term = new Term(ID, id.toString());
+        if (doc == null) {
+            writer.deleteDocuments(term);
+        } else {
+            writer.updateDocument(term, doc);
+        }
+    }
+
+    private Document toDocument(Long id, String userName, String email, String address) {
+        Document doc = new Document();
+        doc.add(new StringField(ID, id.toString(), Field.Store.YES));
+        doc.add(new TextField("userName", userName == null ? "" : userName, Field.Store.NO));
+        doc.add(new TextField("email", email == null ? "" : email, Field.Store.NO));
+        doc.add(new TextField("address", address == null ? "" : address, Field.Store.NO));
+        return doc;
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream("userName", text)) {
+            CharTermAttribute attr = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(attr.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Skipped while a load runs; it commits itself when done
+    private void commitQuietly() {
+        if (!loadLock.tryLock()) {
+            return;
+        }
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to commit user search index: {}", e.getMessage(), e);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void releaseQuietly(IndexSearcher searcher) {
+        if (searcher == null) {
+            return;
+        }
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("Failed to release index searcher: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+-- Schema as Hibernate's ddl-auto=update left it before migrations were introduced. Every statement is
+-- IF NOT EXISTS: Flyway baselines existing databases at version 0, so this also runs (as a no-op) there.
+
+CREATE TABLE IF NOT EXISTS department (
+    id        BIGINT       NOT NULL AUTO_INCREMENT,
+    dept_code VARCHAR(255),
+    dept_name VARCHAR(255),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS role (
+    id   BIGINT       NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_role_name UNIQUE (name)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS user (
+    id            BIGINT       NOT NULL,
+    user_name     VARCHAR(255),
+    email         VARCHAR(255),
+    password      VARCHAR(255),
+    address       VARCHAR(255),
+    contact       VARCHAR(10),
+    department_id BIGINT,
+    created_at    DATETIME(6),
+    updated_at    DATETIME(6),
+    created_by    VARCHAR(255),
+    updated_by    VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_email UNIQUE (email),
+    CONSTRAINT fk_user_department FOREIGN KEY (department_id) REFERENCES department (id)
+) ENGINE = InnoDB;
+
+-- Pooled generator behind User.id (allocationSize 50)
+CREATE TABLE IF NOT EXISTS user_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO user_seq (next_val)
+SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM user_seq);
+
+-- The pooled optimizer hands out (next_val - 49 .. next_val], so on a database that already has users
+-- next_val must be at least MAX(id) + 50 or the first block would collide with existing ids
+UPDATE user_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 50 FROM user));
+
+CREATE TABLE IF NOT EXISTS user_roles (
+    user_id BIGINT NOT NULL,
+    role_id BIGINT NOT NULL,
+    PRIMARY KEY (user_id, role_id),
+    CONSTRAINT fk_user_roles_user FOREIGN KEY (user_id) REFERENCES user (id),
+    CONSTRAINT fk_user_roles_role FOREIGN KEY (role_id) REFERENCES role (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS author (
+    author_id   BIGINT NOT NULL AUTO_INCREMENT,
+    author_name VARCHAR(255),
+    PRIMARY KEY (author_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS book (
+    id               BIGINT NOT NULL AUTO_INCREMENT,
+    tittle           VARCHAR(255),
+    price            DOUBLE NOT NULL,
+    author_id        BIGINT NOT NULL,
+    created_at       DATETIME(6),
+    last_modified_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_book_author FOREIGN KEY (author_id) REFERENCES author (author_id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id              BIGINT       NOT NULL AUTO_INCREMENT,
+    recipient       VARCHAR(255) NOT NULL,
+    subject         VARCHAR(255) NOT NULL,
+    body            LONGTEXT     NOT NULL,
+    status          ENUM ('PENDING','SENT','DEAD') NOT NULL,
+    attempts        INTEGER      NOT NULL,
+    next_attempt_at DATETIME(6)  NOT NULL,
+    last_error      VARCHAR(1000),
+    created_at      DATETIME(6)  NOT NULL,
+    sent_at         DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_email_outbox_due (status, next_attempt_at)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS bulk_user_job (
+    id                BIGINT NOT NULL AUTO_INCREMENT,
+    type              ENUM ('UPDATE_EMAIL_BY_CITY','DELETE_BY_CITY') NOT NULL,
+    city              VARCHAR(255) NOT NULL,
+    new_email         VARCHAR(255),
+    status            ENUM ('PENDING','RUNNING','COMPLETED','FAILED') NOT NULL,
+    last_processed_id BIGINT NOT NULL,
+    processed_count   BIGINT NOT NULL,
+    error             VARCHAR(1000),
+    created_at        DATETIME(6) NOT NULL,
+    updated_at        DATETIME(6),
+    finished_at       DATETIME(6),
+    PRIMARY KEY (id),
+    INDEX idx_bulk_user_job_status (status)
+) ENGINE = InnoDB;
@@ -0,0 +1,22 @@
+-- Indexes for the filters and sorts of the hot queries (UserQueries, DepartmentQueries, BookRepository,
+-- AuthorService). InnoDB secondary indexes end with the primary key, so (address) also serves
+-- "address = ? AND id > ? ORDER BY id" (bulk job chunks) and (user_name) the (user_name, id) keyset order.
+-- email is covered by uk_user_email and email_domain by idx_user_email_domain (V2). The LIKE '%...%'
+-- search can't use a B-tree index; /users/search goes through the Lucene index instead.
+
+-- getUsersByCity, getUsersByCitySorted, getUserSummaryByCity, getFilteredUsers, bulk job chunks
+CREATE INDEX idx_user_address ON user (address);
+-- getFilteredUsers by contact only
+CREATE INDEX idx_user_contact ON user (contact);
+-- getUsersSortedByNameAsc and its keyset pages
+CREATE INDEX idx_user_user_name ON user (user_name);
+-- users of a department (join from department, getUsersByDepartmentName)
+CREATE INDEX idx_user_department ON user (department_id);
+
+-- getDepartmentByName, getDepartmentsSortedByName, users by department name
+CREATE INDEX idx_department_dept_name ON department (dept_name);
+
+-- findByAuthorAuthorId and an author's books sorted by price
+CREATE INDEX idx_book_author_price ON book (author_id, price);
+-- findByAuthorAuthorName
+CREATE INDEX idx_author_author_name ON author (author_name);
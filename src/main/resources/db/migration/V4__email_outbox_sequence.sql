@@ -0,0 +1,13 @@
+-- Pooled generator behind EmailOutbox.id (allocationSize 50), replacing AUTO_INCREMENT so outbox rows
+-- queued during a batch registration are JDBC-batched with the users. The AUTO_INCREMENT attribute is
+-- left on the column; Hibernate now always supplies the id.
+CREATE TABLE IF NOT EXISTS email_outbox_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO email_outbox_seq (next_val)
+SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM email_outbox_seq);
+
+-- Same as user_seq in V1: the first block handed out is (next_val - 49 .. next_val], so it must start
+-- past the ids AUTO_INCREMENT has already used
+UPDATE email_outbox_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 50 FROM email_outbox));
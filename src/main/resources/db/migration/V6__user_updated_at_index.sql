@@ -0,0 +1,3 @@
+-- UserService.reconcileSearchIndex re-reads the users modified since the search index's last checkpoint
+-- every minute; without an index that would be a full scan of user each time.
+CREATE INDEX idx_user_updated_at ON user (updated_at);
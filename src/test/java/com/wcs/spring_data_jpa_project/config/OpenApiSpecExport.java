@@ -0,0 +1,53 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Writes the springdoc spec to the file named by -Dopenapi.output, so the prod profile can serve it as a
+ * static resource instead of scanning controllers at startup. Not a regular test (the name doesn't match
+ * the surefire includes); the fast-startup Maven profile runs it in prepare-package.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:openapi;MODE=MySQL;NON_KEYWORDS=USER;DATABASE_TO_LOWER=TRUE",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.flyway.enabled=false",
+        "app.search.index-dir=target/openapi-export/user-index",
+        "jwt.revocation.file=target/openapi-export/token-revocations.log"
+})
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "openapi.output", matches = ".+")
+class OpenApiSpecExport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser
+    void exportSpec() throws Exception {
+        String spec = mockMvc.perform(get("/v3/api-docs"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        Path output = Path.of(System.getProperty("openapi.output"));
+        Files.createDirectories(output.getParent());
+        Files.writeString(output, spec);
+    }
+}
@@ -0,0 +1,131 @@
+package com.wcs.spring_data_jpa_project.config;
+
+import com.wcs.spring_data_jpa_project.exception.StatementBudgetExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A request doing one count plus an N+1 of lookups through StatementBudgetDataSource, checked by
+ * StatementBudgetFilter: within budget it passes, over budget fail mode reports the statements by
+ * fingerprint and warn mode only counts it.
+ */
+class StatementBudgetFilterTest {
+
+    private DataSource dataSource;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:budget;DB_CLOSE_DELAY=-1");
+        try (Connection connection = h2.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS item (id BIGINT PRIMARY KEY, name VARCHAR(20))");
+            statement.execute("MERGE INTO item KEY (id) VALUES (1, 'a'), (2, 'b'), (3, 'c')");
+        }
+        dataSource = new StatementBudgetDataSource(h2);
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void requestWithinBudgetPasses() {
+        assertDoesNotThrow(() -> request(filter(StatementBudgetFilter.Mode.FAIL, 4, Map.of()), 3));
+    }
+
+    @Test
+    void failModeReportsStatementsByFingerprint() {
+        StatementBudgetExceededException e = assertThrows(StatementBudgetExceededException.class,
+                () -> request(filter(StatementBudgetFilter.Mode.FAIL, 4, Map.of()), 6));
+
+        assertTrue(e.getMessage().startsWith("GET /items/{id} (SampleController.items) ran 7 SQL statements, budget 4:"),
+                e.getMessage());
+        assertTrue(e.getMessage().contains("\n  6 x select name from item where id = ?"), e.getMessage());
+        assertTrue(e.getMessage().contains("\n  1 x select count(*) from item where name <> ?"), e.getMessage());
+    }
+
+    @Test
+    void warnModeCountsTheOverrun() throws Exception {
+        request(filter(StatementBudgetFilter.Mode.WARN, 4, Map.of()), 6);
+
+        assertEquals(1, registry.get("sql.budget.exceeded")
+                .tag("endpoint", "GET /items/{id}")
+                .tag("handler", "SampleController.items")
+                .counter().count());
+    }
+
+    @Test
+    void handlerBudgetOverridesTheDefault() {
+        StatementBudgetFilter filter = filter(StatementBudgetFilter.Mode.FAIL, 1, Map.of("SampleController.items", 10));
+        assertDoesNotThrow(() -> request(filter, 6));
+    }
+
+    @Test
+    void fingerprintIgnoresLiteralsAndInListLength() {
+        assertEquals("select * from item where id in (?+) and name = ?",
+                StatementLog.fingerprint("SELECT *  FROM item\n WHERE id IN (?, ?, ?) AND name = 'x'"));
+        assertEquals(StatementLog.fingerprint("select * from item where id in (?, ?)"),
+                StatementLog.fingerprint("select * from item where id in (?, ?, ?, ?)"));
+    }
+
+    private StatementBudgetFilter filter(StatementBudgetFilter.Mode mode, int defaultBudget, Map<String, Integer> handlerBudgets) {
+        return new StatementBudgetFilter(registry, mode, defaultBudget, handlerBudgets);
+    }
+
+    // One plain-Statement count, then one prepared lookup per item: 1 + lookups statements
+    private void request(StatementBudgetFilter filter, int lookups) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/items/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/items/{id}");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new SampleController(), SampleController.class.getMethod("items")));
+
+        HttpServlet handler = new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException {
+                try (Connection connection = dataSource.getConnection()) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.executeQuery("SELECT COUNT(*) FROM item WHERE name <> 'z'").close();
+                    }
+                    for (int i = 0; i < lookups; i++) {
+                        try (PreparedStatement statement = connection.prepareStatement("SELECT name FROM item WHERE id = ?")) {
+                            statement.setLong(1, 1 + i % 3);
+                            try (ResultSet ignored = statement.executeQuery()) {
+                                // only the statement count matters
+                            }
+                        }
+                    }
+                } catch (SQLException e) {
+                    throw new ServletException(e);
+                }
+            }
+        };
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain(handler));
+    }
+
+    static class SampleController {
+        public void items() {
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.wcs.spring_data_jpa_project.jwt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Revoking a subject must reject every token issued up to that moment. iat only has second
+ * precision, so that includes tokens issued earlier in the same second.
+ */
+class TokenRevocationStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void tokenIssuedEarlierInTheSameSecondIsRevoked() throws IOException {
+        TokenRevocationStore store = open();
+        Date issuedAt = new Date(System.currentTimeMillis() / 1000 * 1000);
+
+        store.revokeAllForSubject("user@example.com");
+
+        assertTrue(store.isRevoked("jti", future(), "user@example.com", issuedAt));
+        assertFalse(store.isRevoked("jti", future(), "other@example.com", issuedAt));
+        store.close();
+
+        // Replayed from the log after a restart
+        TokenRevocationStore restarted = open();
+        assertTrue(restarted.isRevoked("jti", future(), "user@example.com", issuedAt));
+        restarted.close();
+    }
+
+    @Test
+    void tokenIssuedAfterTheRevokedSecondIsValid() throws IOException {
+        TokenRevocationStore store = open();
+        store.revokeAllForSubject("user@example.com");
+
+        Date nextSecond = new Date((System.currentTimeMillis() / 1000 + 1) * 1000);
+        assertFalse(store.isRevoked("jti", future(), "user@example.com", nextSecond));
+        store.close();
+    }
+
+    private TokenRevocationStore open() throws IOException {
+        return new TokenRevocationStore(dir.resolve("revocations.log").toString(), 60_000, 900_000);
+    }
+
+    private static Date future() {
+        return new Date(System.currentTimeMillis() + 60_000);
+    }
+}
@@ -0,0 +1,57 @@
+package com.wcs.spring_data_jpa_project.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * A cached token may only be trusted until its own exp, and the cache must stay within its bound.
+ */
+class VerifiedTokenCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void cachedClaimsAreServedUntilTheTokenExpires() throws InterruptedException {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100, meterRegistry);
+        Claims valid = claimsExpiringIn(60_000);
+        Claims shortLived = claimsExpiringIn(1_500);
+        cache.put("valid", valid);
+        cache.put("short-lived", shortLived);
+        cache.put("no-exp", Jwts.claims().setSubject("user@example.com"));
+
+        assertSame(valid, cache.get("valid"));
+        assertSame(shortLived, cache.get("short-lived"));
+        assertNull(cache.get("no-exp"));
+
+        // exp has second precision, so the token ends 0.5 to 1.5 s from now
+        Thread.sleep(2_100);
+        assertNull(cache.get("short-lived"));
+        assertSame(valid, cache.get("valid"));
+        assertEquals(3, meterRegistry.counter("jwt.cache.requests", "result", "hit").count());
+        assertEquals(2, meterRegistry.counter("jwt.cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    void sizeIsBounded() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(10, meterRegistry);
+        for (int i = 0; i < 1000; i++) {
+            cache.put("token-" + i, claimsExpiringIn(60_000));
+        }
+        cache.cleanUp();
+
+        assertEquals(10, cache.size());
+        assertEquals(990, meterRegistry.counter("jwt.cache.evictions").count());
+    }
+
+    private static Claims claimsExpiringIn(long ms) {
+        return Jwts.claims().setSubject("user@example.com").setExpiration(new Date(System.currentTimeMillis() + ms));
+    }
+}
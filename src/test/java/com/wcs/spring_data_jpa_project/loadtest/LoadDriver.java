@@ -0,0 +1,272 @@
+package com.wcs.spring_data_jpa_project.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load generator: {@code concurrency} virtual threads each send a request, wait for the
+ * answer and send the next, picking endpoints by weight. Requests sent during the warm-up are not
+ * recorded. Reports throughput and latency percentiles per endpoint (and in total).
+ * <p>
+ * Paths may contain {@code {random:N}}, replaced by a random number in 1..N on every request.
+ * Uses only the JDK, so it also runs as a single-file program (see scripts/load-benchmark.sh):
+ * <pre>
+ * java src/test/java/com/wcs/spring_data_jpa_project/loadtest/LoadDriver.java --base http://localhost:8080 \
+ *     --concurrency 400 --warmup 10 --duration 30 --header "Authorization: Bearer ..." \
+ *     --endpoint "count|GET|/api/users/countByEmailDomain/example.com|1" --json target/load.json
+ * </pre>
+ */
+public final class LoadDriver {
+
+    private static final Pattern RANDOM = Pattern.compile("\\{random:(\\d+)}");
+
+    public record Endpoint(String name, String method, String path, String body, int weight) {
+
+        public static Endpoint get(String name, String path, int weight) {
+            return new Endpoint(name, "GET", path, null, weight);
+        }
+
+        public static Endpoint post(String name, String path, String body, int weight) {
+            return new Endpoint(name, "POST", path, body, weight);
+        }
+    }
+
+    public record Stats(String endpoint, long requests, long errors, double throughput,
+                        double p50Ms, double p90Ms, double p99Ms, double maxMs) {
+    }
+
+    // Per worker and endpoint, merged once the run is over
+    private static final class Recorder {
+        long[] latencies = new long[1024];
+        int size;
+        long errors;
+
+        void record(long nanos, boolean ok) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = nanos;
+            if (!ok) {
+                errors++;
+            }
+        }
+    }
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final URI base;
+    private final List<Endpoint> endpoints;
+    private final Map<String, String> headers;
+    private final int[] cumulativeWeights;
+
+    public LoadDriver(URI base, List<Endpoint> endpoints, Map<String, String> headers) {
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("At least one endpoint is required");
+        }
+        this.base = base;
+        this.endpoints = List.copyOf(endpoints);
+        this.headers = Map.copyOf(headers);
+        this.cumulativeWeights = new int[endpoints.size()];
+        int total = 0;
+        for (int i = 0; i < endpoints.size(); i++) {
+            total += endpoints.get(i).weight();
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public List<Stats> run(int concurrency, Duration warmup, Duration duration) throws Exception {
+        long measureStart = System.nanoTime() + warmup.toNanos();
+        long end = measureStart + duration.toNanos();
+
+        List<Future<Recorder[]>> workers = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> work(measureStart, end)));
+            }
+        }
+
+        Recorder[] merged = new Recorder[endpoints.size()];
+        Recorder total = new Recorder();
+        for (int i = 0; i < merged.length; i++) {
+            merged[i] = new Recorder();
+        }
+        for (Future<Recorder[]> worker : workers) {
+            Recorder[] recorders = worker.get();
+            for (int i = 0; i < recorders.length; i++) {
+                merge(recorders[i], merged[i]);
+                merge(recorders[i], total);
+            }
+        }
+
+        double seconds = duration.toNanos() / 1e9;
+        List<Stats> stats = new ArrayList<>();
+        for (int i = 0; i < merged.length; i++) {
+            stats.add(stats(endpoints.get(i).name(), merged[i], seconds));
+        }
+        stats.add(stats("TOTAL", total, seconds));
+        return stats;
+    }
+
+    private Recorder[] work(long measureStart, long end) {
+        Recorder[] recorders = new Recorder[endpoints.size()];
+        for (int i = 0; i < recorders.length; i++) {
+            recorders[i] = new Recorder();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long started;
+        while ((started = System.nanoTime()) < end) {
+            int index = pick(random);
+            boolean ok;
+            try {
+                HttpResponse<Void> response = client.send(request(endpoints.get(index), random),
+                        HttpResponse.BodyHandlers.discarding());
+                ok = response.statusCode() < 400;
+            } catch (IOException e) {
+                ok = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (started >= measureStart) {
+                recorders[index].record(System.nanoTime() - started, ok);
+            }
+        }
+        return recorders;
+    }
+
+    private int pick(ThreadLocalRandom random) {
+        int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    private HttpRequest request(Endpoint endpoint, ThreadLocalRandom random) {
+        Matcher matcher = RANDOM.matcher(endpoint.path());
+        StringBuilder path = new StringBuilder();
+        while (matcher.find()) {
+            matcher.appendReplacement(path, String.valueOf(1 + random.nextLong(Long.parseLong(matcher.group(1)))));
+        }
+        matcher.appendTail(path);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(base.resolve(path.toString()))
+                .timeout(Duration.ofSeconds(60));
+        headers.forEach(builder::header);
+        if (endpoint.body() != null) {
+            builder.header("Content-Type", "application/json")
+                    .method(endpoint.method(), HttpRequest.BodyPublishers.ofString(endpoint.body()));
+        } else {
+            builder.method(endpoint.method(), HttpRequest.BodyPublishers.noBody());
+        }
+        return builder.build();
+    }
+
+    private static void merge(Recorder from, Recorder into) {
+        for (int i = 0; i < from.size; i++) {
+            into.record(from.latencies[i], true);
+        }
+        into.errors += from.errors;
+    }
+
+    private static Stats stats(String name, Recorder recorder, double seconds) {
+        long[] sorted = Arrays.copyOf(recorder.latencies, recorder.size);
+        Arrays.sort(sorted);
+        return new Stats(name, sorted.length, recorder.errors, sorted.length / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    public static String format(List<Stats> stats) {
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT, "%-28s %10s %8s %10s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (Stats s : stats) {
+            out.append(String.format(Locale.ROOT, "%-28s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    s.endpoint(), s.requests(), s.errors(), s.throughput(), s.p50Ms(), s.p90Ms(), s.p99Ms(), s.maxMs()));
+        }
+        return out.toString();
+    }
+
+    public static String toJson(List<Stats> stats) {
+        List<String> rows = new ArrayList<>();
+        for (Stats s : stats) {
+            rows.add(String.format(Locale.ROOT, "{\"endpoint\":\"%s\",\"requests\":%d,\"errors\":%d,\"throughput\":%.2f,"
+                            + "\"p50Ms\":%.3f,\"p90Ms\":%.3f,\"p99Ms\":%.3f,\"maxMs\":%.3f}",
+                    s.endpoint(), s.requests(), s.errors(), s.throughput(), s.p50Ms(), s.p90Ms(), s.p99Ms(), s.maxMs()));
+        }
+        return "[" + String.join(",\n", rows) + "]\n";
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI base = URI.create("http://localhost:8080");
+        int concurrency = 100;
+        int warmup = 10;
+        int duration = 30;
+        Path json = null;
+        Map<String, String> headers = new LinkedHashMap<>();
+        List<Endpoint> endpoints = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String value = i + 1 < args.length ? args[i + 1] : "";
+            switch (args[i]) {
+                case "--base" -> base = URI.create(value);
+                case "--concurrency" -> concurrency = Integer.parseInt(value);
+                case "--warmup" -> warmup = Integer.parseInt(value);
+                case "--duration" -> duration = Integer.parseInt(value);
+                case "--json" -> json = Path.of(value);
+                case "--header" -> {
+                    String[] header = value.split(":", 2);
+                    headers.put(header[0].trim(), header[1].trim());
+                }
+                // name|METHOD|path|weight[|json body]
+                case "--endpoint" -> {
+                    String[] parts = value.split("\\|", 5);
+                    endpoints.add(new Endpoint(parts[0], parts[1], parts[2], parts.length > 4 ? parts[4] : null,
+                            Integer.parseInt(parts[3])));
+                }
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+            i++;
+        }
+
+        List<Stats> stats = new LoadDriver(base, endpoints, headers)
+                .run(concurrency, Duration.ofSeconds(warmup), Duration.ofSeconds(duration));
+        System.out.print(format(stats));
+        if (json != null) {
+            if (json.getParent() != null) {
+                Files.createDirectories(json.getParent());
+            }
+            Files.writeString(json, toJson(stats));
+        }
+    }
+}
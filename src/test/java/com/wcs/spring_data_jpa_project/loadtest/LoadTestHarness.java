@@ -0,0 +1,105 @@
+package com.wcs.spring_data_jpa_project.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wcs.spring_data_jpa_project.SpringDataJpaProjectApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.util.FileSystemUtils;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static com.wcs.spring_data_jpa_project.loadtest.LoadDriver.Endpoint.get;
+
+/**
+ * Repeatable local baseline: boots the app in this JVM with the load-test profile (H2 in MySQL mode,
+ * synthetic dataset from SyntheticDataSeeder), logs in as a seeded user and runs LoadDriver over a fixed
+ * mix of the /users, /departments, /book and /api/authors read endpoints. Prints throughput and latency
+ * percentiles per endpoint and writes them to app.load-test.result-file.
+ * <p>
+ * Every argument is passed to Spring, so dataset and run settings are overridden as properties:
+ * <pre>
+ * scripts/load-test.sh --app.load-test.users=200000 --app.load-test.duration-s=60
+ * </pre>
+ * Endpoints that return whole tables (getAllUsers, /book/getBooks, ...) are left out on purpose: at this
+ * data size they measure serialization of millions of rows, not the request path.
+ */
+public final class LoadTestHarness {
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        // Fresh database and search index on every run
+        FileSystemUtils.deleteRecursively(Path.of("target", "load-test"));
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SpringDataJpaProjectApplication.class)
+                .profiles("load-test")
+                .run(args)) {
+            Environment env = context.getEnvironment();
+            URI base = URI.create("http://localhost:" + env.getRequiredProperty("local.server.port"));
+            int emailDomains = env.getRequiredProperty("app.load-test.email-domains", Integer.class);
+            String token = login(base, SyntheticDataSeeder.email(1, emailDomains));
+
+            List<LoadDriver.Stats> stats = new LoadDriver(base, endpoints(env), Map.of("Authorization", "Bearer " + token))
+                    .run(env.getRequiredProperty("app.load-test.concurrency", Integer.class),
+                            Duration.ofSeconds(env.getRequiredProperty("app.load-test.warmup-s", Long.class)),
+                            Duration.ofSeconds(env.getRequiredProperty("app.load-test.duration-s", Long.class)));
+
+            System.out.print(LoadDriver.format(stats));
+            Path result = Path.of(env.getRequiredProperty("app.load-test.result-file"));
+            if (result.getParent() != null) {
+                Files.createDirectories(result.getParent());
+            }
+            Files.writeString(result, LoadDriver.toJson(stats));
+            System.out.println("Results written to " + result);
+        }
+    }
+
+    static List<LoadDriver.Endpoint> endpoints(Environment env) {
+        long users = env.getRequiredProperty("app.load-test.users", Long.class);
+        long departments = env.getRequiredProperty("app.load-test.departments", Long.class);
+        long authors = env.getRequiredProperty("app.load-test.authors", Long.class);
+        int emailDomains = env.getRequiredProperty("app.load-test.email-domains", Integer.class);
+        // Deep OFFSET pages are part of the mix on purpose: they are what gets slow as the table grows
+        long userPages = Math.max(1, users / 20);
+        long departmentPages = Math.max(1, departments / 20);
+
+        return List.of(
+                get("users.getUser", "/api/users/getUser/{random:" + users + "}", 20),
+                get("users.paginated", "/api/users/paginated?page={random:" + userPages + "}&size=20", 5),
+                get("users.paginated.cursor", "/api/users/paginated/cursor?size=20", 10),
+                get("users.by-department", "/api/users/by-department/Dept-{random:" + departments + "}", 5),
+                get("users.countByEmailDomain", "/api/users/countByEmailDomain/d{random:" + emailDomains + "}.example.com", 10),
+                get("users.search", "/api/users/search?keyword=user{random:" + users + "}", 10),
+                get("departments.get", "/api/departments/{random:" + departments + "}", 10),
+                get("departments.pagination", "/api/departments/pagination?pageNo={random:" + departmentPages + "}&pageSize=20", 5),
+                get("departments.count", "/api/departments/count?name=Dept-{random:" + departments + "}", 5),
+                get("book.by-author", "/api/book/by-author?authorName=Author-{random:" + authors + "}&page=0&size=20", 10),
+                get("authors.get", "/api/api/authors/{random:" + authors + "}", 5),
+                get("authors.books", "/api/api/authors/{random:" + authors + "}/books", 5));
+    }
+
+    private static String login(URI base, String email) throws Exception {
+        ObjectMapper json = new ObjectMapper();
+        String body = json.writeValueAsString(Map.of("email", email, "password", SyntheticDataSeeder.PASSWORD));
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/users/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        HttpResponse<String> response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+        String token = json.readTree(response.body()).path("data").asText(null);
+        if (response.statusCode() != 200 || token == null) {
+            throw new IllegalStateException("Login as " + email + " failed: " + response.statusCode() + " " + response.body());
+        }
+        return token;
+    }
+}
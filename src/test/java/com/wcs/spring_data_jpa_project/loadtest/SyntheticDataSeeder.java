@@ -0,0 +1,172 @@
+package com.wcs.spring_data_jpa_project.loadtest;
+
+import com.wcs.spring_data_jpa_project.model.User;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Fills the load-test database with a synthetic dataset: departments, users (all with ROLE_USER, user 1
+ * also ROLE_ADMIN, all with password {@link #PASSWORD}), authors and their books, plus the email domain
+ * counters. Plain JDBC batches with explicit ids, bypassing Hibernate; identity columns and user_seq are
+ * moved past the seeded ids afterwards so the app's own inserts don't collide.
+ * <p>
+ * Runs as an ApplicationRunner, i.e. after the schema exists but before ApplicationReadyEvent, so the
+ * email Bloom filter and the search index are built over the seeded users.
+ */
+@Component
+@Profile("load-test")
+@Slf4j
+public class SyntheticDataSeeder implements ApplicationRunner {
+
+    static final String PASSWORD = "load-test-password";
+    static final String[] CITIES = {"Pune", "Mumbai", "Delhi", "Bengaluru", "Chennai", "Hyderabad", "Kolkata",
+            "Ahmedabad", "Jaipur", "Nagpur"};
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(PreparedStatement ps, long id) throws SQLException;
+    }
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final long users;
+    private final long departments;
+    private final long authors;
+    private final long books;
+    private final int emailDomains;
+    private final int batchSize;
+
+    public SyntheticDataSeeder(JdbcTemplate jdbc,
+                               PlatformTransactionManager transactionManager,
+                               PasswordEncoder passwordEncoder,
+                               @Value("${app.load-test.users}") long users,
+                               @Value("${app.load-test.departments}") long departments,
+                               @Value("${app.load-test.authors}") long authors,
+                               @Value("${app.load-test.books}") long books,
+                               @Value("${app.load-test.email-domains}") int emailDomains,
+                               @Value("${app.load-test.batch-size}") int batchSize) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+        this.users = users;
+        this.departments = departments;
+        this.authors = authors;
+        this.books = books;
+        this.emailDomains = emailDomains;
+        this.batchSize = batchSize;
+    }
+
+    static String email(long userId, int emailDomains) {
+        return "user" + userId + "@" + domain(1 + userId % emailDomains);
+    }
+
+    // d1.example.com .. d<email-domains>.example.com
+    static String domain(long index) {
+        return "d" + index + ".example.com";
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long started = System.nanoTime();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        // Hashed once: bcrypt per row would take longer than everything else together
+        String passwordHash = passwordEncoder.encode(PASSWORD);
+
+        jdbc.update("INSERT INTO role (id, name) VALUES (1, 'ROLE_USER'), (2, 'ROLE_ADMIN')");
+
+        insert("department", "INSERT INTO department (id, dept_code, dept_name) VALUES (?, ?, ?)", departments,
+                (ps, id) -> {
+                    ps.setLong(1, id);
+                    ps.setString(2, "D" + id);
+                    ps.setString(3, "Dept-" + id);
+                });
+
+        insert("user", "INSERT INTO user (id, user_name, email, email_domain, password, address, contact, department_id, "
+                        + "created_at, updated_at, created_by, updated_by) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", users,
+                (ps, id) -> {
+                    String email = email(id, emailDomains);
+                    ps.setLong(1, id);
+                    ps.setString(2, "user" + id);
+                    ps.setString(3, email);
+                    ps.setString(4, User.domainOf(email));
+                    ps.setString(5, passwordHash);
+                    ps.setString(6, CITIES[(int) (id % CITIES.length)]);
+                    ps.setString(7, String.format("9%09d", id % 1_000_000_000L));
+                    ps.setLong(8, 1 + id % departments);
+                    ps.setTimestamp(9, now);
+                    ps.setTimestamp(10, now);
+                    ps.setString(11, "load-test");
+                    ps.setString(12, "load-test");
+                });
+
+        insert("user_roles", "INSERT INTO user_roles (user_id, role_id) VALUES (?, 1)", users,
+                (ps, id) -> ps.setLong(1, id));
+        jdbc.update("INSERT INTO user_roles (user_id, role_id) VALUES (1, 2)");
+
+        insert("author", "INSERT INTO author (author_id, author_name) VALUES (?, ?)", authors,
+                (ps, id) -> {
+                    ps.setLong(1, id);
+                    ps.setString(2, "Author-" + id);
+                });
+
+        insert("book", "INSERT INTO book (id, tittle, price, author_id, created_at, last_modified_at) VALUES (?, ?, ?, ?, ?, ?)",
+                books,
+                (ps, id) -> {
+                    ps.setLong(1, id);
+                    ps.setString(2, "Book-" + id);
+                    ps.setDouble(3, 5 + id % 9500 / 100.0);
+                    ps.setLong(4, 1 + id % authors);
+                    ps.setTimestamp(5, now);
+                    ps.setTimestamp(6, now);
+                });
+
+        jdbc.update("INSERT INTO email_domain_count (domain, slot, user_count) "
+                + "SELECT email_domain, 0, COUNT(*) FROM user GROUP BY email_domain");
+
+        jdbc.execute("ALTER TABLE role ALTER COLUMN id RESTART WITH 3");
+        jdbc.execute("ALTER TABLE department ALTER COLUMN id RESTART WITH " + (departments + 1));
+        jdbc.execute("ALTER TABLE author ALTER COLUMN author_id RESTART WITH " + (authors + 1));
+        jdbc.execute("ALTER TABLE book ALTER COLUMN id RESTART WITH " + (books + 1));
+        // Pooled optimizer: a next value of N hands out (N - 49 .. N]
+        jdbc.execute("ALTER SEQUENCE user_seq RESTART WITH " + (users + 50));
+
+        log.info("Load-test dataset seeded in {} s: {} users, {} departments, {} authors, {} books",
+                (System.nanoTime() - started) / 1_000_000_000, users, departments, authors, books);
+    }
+
+    private void insert(String table, String sql, long rows, RowWriter writer) {
+        long started = System.nanoTime();
+        for (long from = 1; from <= rows; from += batchSize) {
+            long first = from;
+            int count = (int) Math.min(batchSize, rows - from + 1);
+            transactionTemplate.executeWithoutResult(status -> jdbc.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    writer.write(ps, first + i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return count;
+                }
+            }));
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.info("Seeded {} rows into {} in {} s ({} rows/s)", rows, table, String.format("%.1f", seconds),
+                Math.round(rows / Math.max(seconds, 0.001)));
+    }
+}
@@ -0,0 +1,150 @@
+package com.wcs.spring_data_jpa_project.migration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Migrates an empty MySQL with Flyway (Hibernate then validates the mapping against it), seeds enough
+ * rows for the optimizer to prefer indexes, and checks the EXPLAIN plan of each hot query. The SQL
+ * mirrors what Hibernate generates for the named queries and BookRepository finders; when a query in
+ * UserQueries / DepartmentQueries changes shape, update its twin here.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class SchemaIndexPlanTest {
+
+    @Container
+    @ServiceConnection
+    static MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    private static final String LIST_COLUMNS = "SELECT u.id, u.user_name, u.email, u.address, u.contact, d.dept_name ";
+    private static final String LIST_FROM = "FROM user u LEFT JOIN department d ON d.id = u.department_id ";
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> departments = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            departments.add(new Object[]{i, "D" + i, "Dept-" + i});
+        }
+        jdbc.batchUpdate("INSERT INTO department (id, dept_code, dept_name) VALUES (?, ?, ?)", departments);
+
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= 5000; i++) {
+            String domain = "domain" + (i % 20) + ".com";
+            users.add(new Object[]{i, "user" + i, "user" + i + "@" + domain, domain, "secret",
+                    "City-" + (i % 200), String.valueOf(9000000000L + i), i % 50 + 1});
+        }
+        jdbc.batchUpdate("INSERT INTO user (id, user_name, email, email_domain, password, address, contact, department_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", users);
+
+        List<Object[]> authors = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            authors.add(new Object[]{i, "Author-" + i});
+        }
+        jdbc.batchUpdate("INSERT INTO author (author_id, author_name) VALUES (?, ?)", authors);
+
+        List<Object[]> books = new ArrayList<>();
+        for (int i = 1; i <= 2000; i++) {
+            books.add(new Object[]{i, "Book-" + i, 10.0 + i % 90, i % 100 + 1});
+        }
+        jdbc.batchUpdate("INSERT INTO book (id, tittle, price, author_id) VALUES (?, ?, ?, ?)", books);
+
+        jdbc.execute("ANALYZE TABLE user, department, author, book");
+    }
+
+    @Test
+    void emailHasTheUniqueKeyRegistrationReliesOn() {
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() "
+                + "AND table_name = 'user' AND index_name = 'uk_user_email' AND non_unique = 0", Integer.class));
+    }
+
+    @Test
+    void userListingsByCityUseAddressIndex() {
+        assertUsesIndex(LIST_COLUMNS + LIST_FROM + "WHERE u.address = ?", "u", "idx_user_address", "City-7");
+        assertUsesIndex(LIST_COLUMNS + LIST_FROM + "WHERE u.address = ? ORDER BY u.user_name DESC",
+                "u", "idx_user_address", "City-7");
+        assertUsesIndex("SELECT u.user_name, u.email, u.contact FROM user u WHERE u.address = ?",
+                "u", "idx_user_address", "City-7");
+        // Bulk job chunk: the primary key at the end of the index gives the id order
+        assertUsesIndex("SELECT u.id, u.user_name, u.email, u.address FROM user u "
+                + "WHERE u.address = ? AND u.id > ? ORDER BY u.id LIMIT 500", "u", "idx_user_address", "City-7", 100);
+    }
+
+    @Test
+    void filteredUsersByContactUseContactIndex() {
+        assertUsesIndex(LIST_COLUMNS + LIST_FROM + "WHERE u.contact = ?", "u", "idx_user_contact", "9000000042");
+    }
+
+    @Test
+    void keysetPagesWalkTheSortIndex() {
+        assertUsesIndex(LIST_COLUMNS + LIST_FROM + "ORDER BY u.user_name, u.id LIMIT 20", "u", "idx_user_user_name");
+        assertUsesIndex(LIST_COLUMNS + LIST_FROM + "WHERE u.user_name > ? OR (u.user_name = ? AND u.id > ?) "
+                + "ORDER BY u.user_name, u.id LIMIT 20", "u", "idx_user_user_name", "user42", "user42", 42);
+        assertUsesIndex(LIST_COLUMNS + LIST_FROM + "WHERE u.email < ? OR (u.email = ? AND u.id < ?) "
+                        + "ORDER BY u.email DESC, u.id DESC LIMIT 20", "u", "uk_user_email",
+                "user42@domain2.com", "user42@domain2.com", 42);
+    }
+
+    @Test
+    void emailLookupsUseEmailIndexes() {
+        assertUsesIndex("SELECT u.id FROM user u WHERE u.email = ?", "u", "uk_user_email", "user42@domain2.com");
+        assertUsesIndex("SELECT COUNT(*) FROM user u WHERE u.email_domain = ?", "u", "idx_user_email_domain", "domain2.com");
+    }
+
+    @Test
+    void searchIndexReconcileUsesUpdatedAtIndex() {
+        assertUsesIndex("SELECT u.id, u.user_name, u.email, u.address FROM user u WHERE u.updated_at >= ?",
+                "u", "idx_user_updated_at", "2024-01-01 00:00:00");
+    }
+
+    @Test
+    void departmentLookupsUseDeptNameIndex() {
+        assertUsesIndex("SELECT d.id, d.dept_code, d.dept_name FROM department d WHERE d.dept_name = ?",
+                "d", "idx_department_dept_name", "Dept-3");
+        String usersByDepartment = LIST_COLUMNS + "FROM user u JOIN department d ON d.id = u.department_id WHERE d.dept_name = ?";
+        assertUsesIndex(usersByDepartment, "d", "idx_department_dept_name", "Dept-3");
+        assertUsesIndex(usersByDepartment, "u", "idx_user_department", "Dept-3");
+    }
+
+    @Test
+    void bookFindersUseAuthorIndexes() {
+        assertUsesIndex("SELECT b.id, b.tittle, b.price FROM book b WHERE b.author_id = ? ORDER BY b.price",
+                "b", "idx_book_author_price", 7);
+        String byAuthorName = "SELECT b.id, b.tittle, b.price FROM book b LEFT JOIN author a ON a.author_id = b.author_id "
+                + "WHERE a.author_name = ? ORDER BY b.price LIMIT 10";
+        assertUsesIndex(byAuthorName, "a", "idx_author_author_name", "Author-7");
+        assertUsesIndex(byAuthorName, "b", "idx_book_author_price", "Author-7");
+    }
+
+    private void assertUsesIndex(String sql, String table, String index, Object... args) {
+        List<Map<String, Object>> plan = jdbc.queryForList("EXPLAIN " + sql, args);
+        Map<String, Object> row = plan.stream()
+                .filter(r -> table.equals(r.get("table")))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No plan row for " + table + " in " + plan));
+        assertEquals(index, row.get("key"), () -> "EXPLAIN " + sql + " -> " + plan);
+    }
+}
@@ -0,0 +1,86 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.exception.DuplicateResourceException;
+import com.wcs.spring_data_jpa_project.model.User;
+import com.wcs.spring_data_jpa_project.repository.BulkUserJobRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * City-wide email updates give every user of the city the same address, which the email unique key
+ * only allows for a city with one user. Such jobs are rejected when submitted instead of failing on
+ * their first chunk.
+ */
+@UserServiceJpaTest
+@Import(BulkUserJobService.class)
+@MockitoBean(types = {EmailService.class, EmailBloomFilter.class})
+class BulkUserJobServiceTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private BulkUserJobService bulkUserJobService;
+
+    @Autowired
+    private BulkUserJobRepository jobRepository;
+
+    private User alone;
+
+    @BeforeEach
+    void seed() {
+        user(1, "Pune");
+        user(2, "Pune");
+        alone = user(3, "Nagpur");
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void emailUpdateOfACityWithSeveralUsersIsRejected() {
+        assertThrows(DuplicateResourceException.class, () -> bulkUserJobService.submitEmailUpdate("Pune", "shared@example.com"));
+        assertEquals(0, jobRepository.count());
+    }
+
+    @Test
+    void emailUpdateToAnAddressAnotherUserHasIsRejected() {
+        assertThrows(DuplicateResourceException.class, () -> bulkUserJobService.submitEmailUpdate("Nagpur", "user1@example.com"));
+        assertEquals(0, jobRepository.count());
+    }
+
+    @Test
+    void emailUpdateOfASingleUserCityIsAccepted() {
+        userService.checkEmailUpdateByCity("Nagpur", "new@example.com");
+        // Re-running with the address the user already has is fine as well (resumed job)
+        userService.checkEmailUpdateByCity("Nagpur", alone.getEmail());
+        userService.checkEmailUpdateByCity("Nowhere", "new@example.com");
+
+        assertEquals(List.of(alone.getId()), userService.updateEmailsByCityChunk("Nagpur", "new@example.com", 0, 500));
+        entityManager.clear();
+        assertEquals("new@example.com", entityManager.find(User.class, alone.getId()).getEmail());
+    }
+
+    private User user(int i, String city) {
+        User user = new User();
+        user.setUserName("user" + i);
+        user.setEmail("user" + i + "@example.com");
+        user.setPassword("secret");
+        user.setAddress(city);
+        user.setContact("98765" + i);
+        entityManager.persist(user);
+        return user;
+    }
+}
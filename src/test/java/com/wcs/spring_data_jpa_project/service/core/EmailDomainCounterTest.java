@@ -0,0 +1,81 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.model.Department;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The counter's native upserts run on every registration, so they must leave the second-level cache
+ * alone: a cached Department has to survive them. Runs without the test transaction so the entity is
+ * committed and put in the cache before the counter is touched.
+ */
+@DataJpaTest
+@ActiveProfiles("h2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmailDomainCounter.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailDomainCounterTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EmailDomainCounter counter;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Cache cache;
+    private Long departmentId;
+
+    @BeforeEach
+    void cacheADepartment() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        departmentId = tx.execute(status -> {
+            Department department = new Department();
+            department.setDeptCode("D" + System.nanoTime());
+            department.setDeptName("IT");
+            entityManager.persist(department);
+            return department.getId();
+        });
+        tx.executeWithoutResult(status -> entityManager.find(Department.class, departmentId));
+        cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        assertTrue(cache.containsEntity(Department.class, departmentId));
+    }
+
+    @Test
+    void upsertsKeepTheSecondLevelCache() {
+        counter.increment("example.com");
+        counter.addAll(Map.of("example.com", 2L, "example.org", 1L));
+        counter.decrement("example.org");
+
+        assertTrue(cache.containsEntity(Department.class, departmentId));
+        assertEquals(3, counter.count("example.com"));
+        assertEquals(0, counter.count("example.org"));
+    }
+
+    @Test
+    void rebuildKeepsTheSecondLevelCache() {
+        counter.rebuild();
+
+        assertTrue(cache.containsEntity(Department.class, departmentId));
+    }
+}
@@ -0,0 +1,148 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.wcs.spring_data_jpa_project.model.EmailOutbox;
+import com.wcs.spring_data_jpa_project.model.OutboxStatus;
+import com.wcs.spring_data_jpa_project.repository.EmailOutboxRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.InOrder;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private final EmailOutboxRepository repository = mock(EmailOutboxRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    @Test
+    void sendsDueEmailsAndMarksThemSent() throws Exception {
+        EmailOutbox email = pending("new.user@example.com");
+        when(repository.findDue(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of(email));
+
+        dispatcher(ServerSetupTest.SMTP.getPort(), 3).dispatchPending();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(1, received.length);
+        assertEquals("Welcome to Our App!", received[0].getSubject());
+        assertEquals(OutboxStatus.SENT, email.getStatus());
+        assertEquals(1, email.getAttempts());
+        assertNotNull(email.getSentAt());
+        verify(repository).recordOutcome(eq(1L), eq(1), eq(OutboxStatus.SENT), any(), isNull(), eq(email.getSentAt()));
+    }
+
+    @Test
+    void claimCommitsBeforeSendingAndEachOutcomeIsRecordedOnItsOwn() {
+        EmailOutbox first = pending("first@example.com");
+        EmailOutbox second = pending("second@example.com");
+        second.setId(2L);
+        when(repository.findDue(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of(first, second));
+        EmailOutboxDispatcher dispatcher = dispatcher(ServerSetupTest.SMTP.getPort(), 3, emailService -> {
+            EmailService failingFirst = spy(emailService);
+            doThrow(new IllegalStateException("template error"))
+                    .when(failingFirst).deliver(eq("first@example.com"), any(), any());
+            return failingFirst;
+        });
+
+        dispatcher.dispatchPending();
+
+        // The claim's transaction is over before anything is sent; no transaction spans the SMTP calls
+        InOrder order = inOrder(transactionManager, repository);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(repository).findDue(eq(OutboxStatus.PENDING), any(), any());
+        order.verify(transactionManager).commit(any());
+        order.verify(repository).recordOutcome(eq(1L), eq(1), eq(OutboxStatus.PENDING), any(), eq("template error"), isNull());
+        order.verify(repository).recordOutcome(eq(2L), eq(1), eq(OutboxStatus.SENT), any(), isNull(), any());
+        assertEquals(1, greenMail.getReceivedMessages().length);
+    }
+
+    @Test
+    void claimedRowsAreLeasedUntilTheirOutcomeIsRecorded() {
+        EmailOutbox email = pending("new.user@example.com");
+        when(repository.findDue(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of(email));
+        // Recording fails: the row keeps the lease set by the claim and is only sent again once it ends
+        when(repository.recordOutcome(any(), anyInt(), any(), any(), any(), any())).thenThrow(new IllegalStateException("db down"));
+
+        dispatcher(ServerSetupTest.SMTP.getPort(), 3).dispatchPending();
+
+        assertEquals(1, email.getAttempts());
+        assertTrue(email.getNextAttemptAt().isAfter(LocalDateTime.now().plusMinutes(5)));
+    }
+
+    @Test
+    void failedSendIsRetriedWithBackoffThenDeadLettered() {
+        EmailOutbox email = pending("new.user@example.com");
+        when(repository.findDue(eq(OutboxStatus.PENDING), any(), any())).thenReturn(List.of(email));
+        // Nothing listens on this port, so every attempt fails
+        EmailOutboxDispatcher dispatcher = dispatcher(1, 2);
+
+        dispatcher.dispatchPending();
+        assertEquals(OutboxStatus.PENDING, email.getStatus());
+        assertTrue(email.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertNotNull(email.getLastError());
+
+        dispatcher.dispatchPending();
+        assertEquals(OutboxStatus.DEAD, email.getStatus());
+        assertEquals(2, email.getAttempts());
+    }
+
+    @Test
+    void backoffDoublesAndIsCapped() {
+        EmailOutboxDispatcher dispatcher = dispatcher(1, 10);
+        assertEquals(1000, dispatcher.backoffFor(1));
+        assertEquals(2000, dispatcher.backoffFor(2));
+        assertEquals(4000, dispatcher.backoffFor(3));
+        assertEquals(5000, dispatcher.backoffFor(9));
+    }
+
+    private EmailOutboxDispatcher dispatcher(int smtpPort, int maxAttempts) {
+        return dispatcher(smtpPort, maxAttempts, emailService -> emailService);
+    }
+
+    private EmailOutboxDispatcher dispatcher(int smtpPort, int maxAttempts, UnaryOperator<EmailService> wrap) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpPort);
+
+        EmailService emailService = new EmailService();
+        ReflectionTestUtils.setField(emailService, "mailSender", mailSender);
+        ReflectionTestUtils.setField(emailService, "outboxRepository", repository);
+        ReflectionTestUtils.setField(emailService, "fromEmail", "noreply@example.com");
+
+        return new EmailOutboxDispatcher(repository, wrap.apply(emailService), transactionManager, 50, maxAttempts, 1000, 5000, 600000);
+    }
+
+    private EmailOutbox pending(String recipient) {
+        EmailOutbox email = new EmailOutbox();
+        email.setId(1L);
+        email.setRecipient(recipient);
+        email.setSubject("Welcome to Our App!");
+        email.setBody("Hi there");
+        email.setStatus(OutboxStatus.PENDING);
+        email.setNextAttemptAt(LocalDateTime.now());
+        email.setCreatedAt(LocalDateTime.now());
+        return email;
+    }
+}
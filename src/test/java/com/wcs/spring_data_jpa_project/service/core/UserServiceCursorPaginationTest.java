@@ -0,0 +1,93 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.dto.CursorPage;
+import com.wcs.spring_data_jpa_project.dto.UserListDTO;
+import com.wcs.spring_data_jpa_project.model.Department;
+import com.wcs.spring_data_jpa_project.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Walks every keyset listing page by page and checks it returns the same rows, in the same order, as
+ * one unpaged query. Some users have no email, so the email listing has pages ending on a NULL key.
+ */
+@UserServiceJpaTest
+@MockitoBean(types = {EmailService.class, EmailBloomFilter.class})
+class UserServiceCursorPaginationTest {
+
+    private static final int USERS = 17;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void seed() {
+        Department department = new Department();
+        department.setDeptCode("D1");
+        department.setDeptName("IT");
+        entityManager.persist(department);
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUserName("user" + i % 4);
+            // Every third user has no email
+            user.setEmail(i % 3 == 0 ? null : "user" + i + "@example.com");
+            user.setPassword("secret");
+            user.setAddress("Pune");
+            user.setContact("98765" + i);
+            user.setDepartment(department);
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void emailDescendingPagesIncludeUsersWithoutEmail() {
+        List<Long> expected = userService.getUsersSortedByEmailDesc().stream()
+                .sorted(Comparator.comparing(UserListDTO::email, Comparator.nullsLast(Comparator.<String>reverseOrder()))
+                        .thenComparing(UserListDTO::id, Comparator.reverseOrder()))
+                .map(UserListDTO::id)
+                .toList();
+
+        for (int pageSize = 1; pageSize <= 6; pageSize++) {
+            assertEquals(expected, walk(userService::getUsersSortedByEmailDescByCursor, pageSize), "page size " + pageSize);
+        }
+    }
+
+    @Test
+    void nameAndIdPagesMatchTheUnpagedOrder() {
+        List<Long> byName = userService.getUsersSortedByNameAsc().stream()
+                .sorted(Comparator.comparing(UserListDTO::userName).thenComparing(UserListDTO::id))
+                .map(UserListDTO::id)
+                .toList();
+        List<Long> byId = byName.stream().sorted().toList();
+
+        assertEquals(byName, walk(userService::getUsersSortedByNameAscByCursor, 4));
+        assertEquals(byId, walk(userService::getUsersPaginatedByCursor, 4));
+    }
+
+    private List<Long> walk(BiFunction<String, Integer, CursorPage<UserListDTO>> listing, int pageSize) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<UserListDTO> page = listing.apply(cursor, pageSize);
+            page.getContent().forEach(row -> ids.add(row.id()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return ids;
+    }
+}
@@ -0,0 +1,89 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * isEmailAvailable with the real Bloom filter (spied): every write that sets an email must add it to the
+ * filter, and until the filter's first rebuild (ApplicationReadyEvent, after the server already takes
+ * requests) its empty "not registered" answers must not be trusted. Runs without a test transaction,
+ * so every call commits as it would in production.
+ */
+@UserServiceJpaTest
+@Import(EmailBloomFilter.class)
+@MockitoBean(types = EmailService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserServiceEmailAvailabilityTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockitoSpyBean
+    private EmailBloomFilter emailBloomFilter;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void setUp() {
+        tx = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(status -> entityManager.createQuery("DELETE FROM User").executeUpdate());
+    }
+
+    @Test
+    void beforeTheFirstRebuildEveryEmailIsCheckedInTheDatabase() {
+        // The test context has already published ApplicationReadyEvent and rebuilt the empty filter
+        doReturn(false).when(emailBloomFilter).isReady();
+        tx.executeWithoutResult(status -> entityManager.persist(user("taken@example.com")));
+
+        assertFalse(userService.isEmailAvailable("taken@example.com"));
+        assertTrue(userService.isEmailAvailable("free@example.com"));
+    }
+
+    @Test
+    void savedAndUpdatedEmailsAreAddedToTheFilter() {
+        User user = user("saved@example.com");
+        userService.saveUser(user);
+        assertFalse(userService.isEmailAvailable("saved@example.com"));
+
+        user.setEmail("updated@example.com");
+        userService.updateUser(user);
+        assertFalse(userService.isEmailAvailable("updated@example.com"));
+        assertTrue(userService.isEmailAvailable("free@example.com"));
+    }
+
+    private static User user(String email) {
+        User user = new User();
+        user.setUserName("user");
+        user.setEmail(email);
+        user.setPassword("secret");
+        user.setAddress("Pune");
+        user.setContact("987650");
+        return user;
+    }
+}
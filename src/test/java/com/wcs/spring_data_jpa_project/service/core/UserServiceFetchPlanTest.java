@@ -0,0 +1,122 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.dto.UserListDTO;
+import com.wcs.spring_data_jpa_project.model.Department;
+import com.wcs.spring_data_jpa_project.model.Role;
+import com.wcs.spring_data_jpa_project.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Counts the SQL statements behind the user list endpoints. Entity lists touch roles and department on
+ * every row the way JSON serialization does, so an N+1 regression shows up as a count that grows with
+ * the rows; projection lists must stay at one statement and leave the persistence context empty.
+ */
+@UserServiceJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@MockitoBean(types = {EmailService.class, EmailBloomFilter.class})
+class UserServiceFetchPlanTest {
+
+    private static final int USERS = 30;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserService userService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        Role userRole = role("ROLE_USER");
+        Role adminRole = role("ROLE_ADMIN");
+        Department[] departments = {department("D1", "IT"), department("D2", "HR"), department("D3", "Sales")};
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUserName("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword("secret");
+            user.setAddress(i % 2 == 0 ? "Pune" : "Mumbai");
+            user.setContact("98765" + i);
+            user.setDepartment(departments[i % departments.length]);
+            user.setRoles(i % 5 == 0 ? Set.of(userRole, adminRole) : Set.of(userRole));
+            entityManager.persist(user);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void entityListsLoadRolesAndDepartmentInOneStatement() {
+        assertStatements(1, userService.getAllUsers());
+        assertStatements(1, userService.dynamicSearch("user1"));
+    }
+
+    @Test
+    void listEndpointsSelectProjectionsWithoutLoadingEntities() {
+        assertProjection(userService.getUsersByCity("Pune"));
+        assertProjection(userService.getUsersByCitySorted("Mumbai"));
+        assertProjection(userService.getFilteredUsers("Pune", null));
+        assertProjection(userService.getUsersSortedByNameAsc());
+        assertProjection(userService.getUsersSortedByEmailDesc());
+        assertProjection(userService.getUsersPaginated(1, 20));
+        assertProjection(userService.getUsersPaginatedByCursor(null, 20).getContent());
+        assertProjection(userService.getUsersWithDepartments());
+        assertProjection(userService.getUsersByDepartmentName("IT"));
+        assertProjection(userService.getUsersSortedByDepartmentName());
+    }
+
+    private void assertStatements(long expected, List<User> users) {
+        users.forEach(this::touchAssociations);
+        assertEquals(expected, statistics.getPrepareStatementCount());
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    private void assertProjection(List<UserListDTO> rows) {
+        assertFalse(rows.isEmpty());
+        rows.forEach(row -> assertNotNull(row.deptName()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+        statistics.clear();
+    }
+
+    private void touchAssociations(User user) {
+        user.getRoles().forEach(Role::getName);
+        if (user.getDepartment() != null) {
+            user.getDepartment().getDeptName();
+        }
+    }
+
+    private Role role(String name) {
+        Role role = new Role();
+        role.setName(name);
+        entityManager.persist(role);
+        return role;
+    }
+
+    private Department department(String code, String name) {
+        Department department = new Department();
+        department.setDeptCode(code);
+        department.setDeptName(name);
+        entityManager.persist(department);
+        return department;
+    }
+}
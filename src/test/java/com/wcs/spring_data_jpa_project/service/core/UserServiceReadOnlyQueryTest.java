@@ -0,0 +1,126 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.model.Department;
+import com.wcs.spring_data_jpa_project.model.Role;
+import com.wcs.spring_data_jpa_project.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @ReadOnlyQuery methods must run in their own read-only transaction: entities loaded read-only, no
+ * flush on commit. The test transaction of @DataJpaTest is switched off, since a read-only method
+ * called inside it would join it and run read-write. The same call inside a read-write transaction
+ * (what these methods did before) is the baseline: it dirty-checks and flushes on commit.
+ */
+@UserServiceJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@MockitoBean(types = {EmailService.class, EmailBloomFilter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserServiceReadOnlyQueryTest {
+
+    private static final int USERS = 50;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readWrite;
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        readWrite = new TransactionTemplate(transactionManager);
+        readWrite.executeWithoutResult(status -> {
+            Role role = new Role();
+            role.setName("ROLE_USER");
+            entityManager.persist(role);
+            Department department = new Department();
+            department.setDeptCode("D1");
+            department.setDeptName("IT");
+            entityManager.persist(department);
+            for (int i = 0; i < USERS; i++) {
+                User user = new User();
+                user.setUserName("user" + i);
+                user.setEmail("user" + i + "@example.com");
+                user.setPassword("secret");
+                user.setAddress("Pune");
+                user.setContact("98765" + i);
+                user.setDepartment(department);
+                user.setRoles(Set.of(role));
+                entityManager.persist(user);
+            }
+        });
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        readWrite.executeWithoutResult(status -> {
+            entityManager.createNativeQuery("DELETE FROM user_roles").executeUpdate();
+            entityManager.createQuery("DELETE FROM User").executeUpdate();
+            entityManager.createQuery("DELETE FROM Department").executeUpdate();
+            entityManager.createQuery("DELETE FROM Role").executeUpdate();
+        });
+    }
+
+    @Test
+    void readOnlyQueryLoadsEntitiesReadOnlyAndNeverFlushes() {
+        long[] readOnlyEntities = {0};
+        FlushMode[] flushMode = {null};
+        long streamed = userService.streamAllUsers(user -> {
+            Session session = entityManager.unwrap(Session.class);
+            flushMode[0] = session.getHibernateFlushMode();
+            if (session.isReadOnly(user)) {
+                readOnlyEntities[0]++;
+            }
+            // Would be written back by a read-write transaction
+            user.setAddress("changed");
+        });
+
+        assertEquals(USERS, streamed);
+        assertEquals(USERS, readOnlyEntities[0]);
+        assertEquals(FlushMode.MANUAL, flushMode[0]);
+        assertEquals(0, statistics.getFlushCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void listQueryFlushesOnlyInsideAReadWriteTransaction() {
+        List<User> users = userService.getAllUsers();
+        assertEquals(USERS, users.size());
+        assertEquals(0, statistics.getFlushCount());
+        long readOnlyLoads = statistics.getEntityLoadCount();
+        statistics.clear();
+
+        // Baseline: the same call joining a read-write transaction, as before @ReadOnlyQuery
+        readWrite.execute(status -> userService.getAllUsers());
+        assertEquals(1, statistics.getFlushCount());
+        assertEquals(readOnlyLoads, statistics.getEntityLoadCount());
+        assertTrue(readOnlyLoads >= USERS);
+    }
+}
@@ -0,0 +1,181 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.dto.BatchRegistrationResult;
+import com.wcs.spring_data_jpa_project.dto.BatchRegistrationResult.Status;
+import com.wcs.spring_data_jpa_project.dto.RegisterRequest;
+import com.wcs.spring_data_jpa_project.exception.DuplicateResourceException;
+import com.wcs.spring_data_jpa_project.model.Role;
+import com.wcs.spring_data_jpa_project.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Registration against H2. Batch registration is checked by statement count: users, their role links and
+ * their welcome emails must each go out as one JDBC batch, so the count stays the same whatever the batch
+ * size (up to hibernate.jdbc.batch_size); an entity with an IDENTITY id in the loop would add one insert
+ * per user. Rows that would fail Bean Validation on insert are reported INVALID up front instead of
+ * failing the whole batch at flush. Single registration relies on the email unique key for duplicates,
+ * and only on that key, and always assigns the default role.
+ */
+@UserServiceJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.mail.username=noreply@example.com"
+})
+@Import(EmailService.class)
+@MockitoBean(types = {JavaMailSender.class, EmailBloomFilter.class})
+class UserServiceRegistrationTest {
+
+    private static final int USERS = 40;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    private Statistics statistics;
+    private Role userRole;
+
+    @BeforeEach
+    void setUp() {
+        userRole = new Role();
+        userRole.setName("ROLE_USER");
+        entityManager.persist(userRole);
+        entityManager.flush();
+        when(roleRegistry.getOrCreate(anyString())).thenReturn(userRole);
+        when(passwordHashingService.encode(anyString())).thenReturn("hash");
+        when(passwordHashingService.encodeAll(anyList()))
+                .thenAnswer(call -> Collections.nCopies(call.<List<String>>getArgument(0).size(), "hash"));
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void usersRolesAndWelcomeEmailsAreInsertedInOneBatchEach() {
+        List<RegisterRequest> requests = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            requests.add(request(i));
+        }
+
+        List<BatchRegistrationResult> results = userService.registerUsersBatch(requests);
+        entityManager.flush();
+
+        assertTrue(results.stream().allMatch(r -> r.getStatus() == Status.CREATED));
+        // Duplicate check; up to two reads of each pooled sequence (a fresh one is read twice to find its
+        // first block, and sequences are not rolled back between tests); then the user, outbox and
+        // user_roles batches. With an IDENTITY outbox id this was 84.
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= 8, statements + " statements");
+        assertEquals(2L * USERS, statistics.getEntityInsertCount());
+        entityManager.clear();
+        assertEquals(USERS, entityManager.createQuery("SELECT COUNT(e) FROM EmailOutbox e", Long.class).getSingleResult());
+        assertEquals(USERS, entityManager.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult());
+    }
+
+    @Test
+    void rowsFailingValidationAreReportedInvalidAndTheRestIsInserted() {
+        RegisterRequest noName = request(1);
+        noName.setUserName(" ");
+        RegisterRequest shortContact = request(2);
+        shortContact.setContact("123");
+        RegisterRequest badEmail = request(3);
+        badEmail.setEmail("not-an-email");
+        RegisterRequest noPassword = request(4);
+        noPassword.setPassword(null);
+
+        List<BatchRegistrationResult> results = userService.registerUsersBatch(
+                Arrays.asList(noName, shortContact, badEmail, noPassword, null, request(5)));
+
+        assertEquals(List.of(Status.INVALID, Status.INVALID, Status.INVALID, Status.INVALID, Status.INVALID, Status.CREATED),
+                results.stream().map(BatchRegistrationResult::getStatus).toList());
+        assertTrue(results.get(1).getMessage().startsWith("contact: "), results.get(1).getMessage());
+        entityManager.flush();
+        assertEquals(1, entityManager.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult());
+    }
+
+    @Test
+    void emailsThatDifferOnlyInCaseAreOneEmail() {
+        RegisterRequest upper = request(1);
+        upper.setEmail("User1@Example.com");
+
+        List<BatchRegistrationResult> results = userService.registerUsersBatch(List.of(upper, request(1)));
+
+        assertEquals(Status.CREATED, results.get(0).getStatus());
+        assertEquals(Status.DUPLICATE, results.get(1).getStatus());
+        assertEquals("Email repeated in this batch", results.get(1).getMessage());
+    }
+
+    @Test
+    void duplicateEmailIsReportedAsAlreadyRegistered() {
+        userService.registerUser(request(1));
+
+        DuplicateResourceException e = assertThrows(DuplicateResourceException.class, () -> userService.registerUser(request(1)));
+        assertEquals("Email already registered", e.getMessage());
+    }
+
+    @Test
+    void publicRegistrationIgnoresTheRequestedRole() {
+        RegisterRequest request = request(1);
+        request.setRole("ROLE_ADMIN");
+
+        User user = userService.registerUser(request);
+
+        assertEquals(Set.of(userRole), user.getRoles());
+        verify(roleRegistry).getOrCreate("ROLE_USER");
+        verify(roleRegistry, never()).getOrCreate("ROLE_ADMIN");
+    }
+
+    @Test
+    void otherConstraintViolationsAreNotReportedAsDuplicates() {
+        // A role that is not in the table: the user_roles foreign key rejects the insert
+        Role missing = new Role();
+        missing.setId(userRole.getId() + 100);
+        missing.setName("ROLE_GONE");
+        when(roleRegistry.getOrCreate(anyString())).thenReturn(missing);
+
+        assertThrows(PersistenceException.class, () -> userService.registerUser(request(2)));
+    }
+
+    private RegisterRequest request(int i) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUserName("user" + i);
+        request.setEmail("user" + i + "@example.com");
+        request.setPassword("secret");
+        request.setAddress("Pune");
+        request.setContact("98765" + i);
+        return request;
+    }
+}
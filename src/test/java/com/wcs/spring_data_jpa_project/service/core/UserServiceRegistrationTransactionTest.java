@@ -0,0 +1,142 @@
+package com.wcs.spring_data_jpa_project.service.core;
+
+import com.wcs.spring_data_jpa_project.dto.BatchRegistrationResult;
+import com.wcs.spring_data_jpa_project.dto.BatchRegistrationResult.Status;
+import com.wcs.spring_data_jpa_project.dto.RegisterRequest;
+import com.wcs.spring_data_jpa_project.model.Role;
+import com.wcs.spring_data_jpa_project.model.User;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Registration as it runs in production, outside any caller transaction: bcrypt must run before a
+ * transaction has taken a pooled connection, so a slow or queued hash never holds one. That leaves a
+ * window between the batch's duplicate lookup and its insert, which a concurrent registration can hit.
+ */
+@UserServiceJpaTest
+@MockitoBean(types = {EmailService.class, EmailBloomFilter.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserServiceRegistrationTransactionTest {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private RoleRegistry roleRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private TransactionTemplate tx;
+    private HikariPoolMXBean pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        tx = new TransactionTemplate(transactionManager);
+        Role userRole = tx.execute(status -> {
+            Role role = new Role();
+            role.setName("ROLE_USER");
+            entityManager.persist(role);
+            return role;
+        });
+        when(roleRegistry.getOrCreate(anyString())).thenReturn(userRole);
+        pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(status -> {
+            entityManager.createNativeQuery("DELETE FROM user_roles").executeUpdate();
+            entityManager.createQuery("DELETE FROM User").executeUpdate();
+            entityManager.createQuery("DELETE FROM Role").executeUpdate();
+        });
+    }
+
+    @Test
+    void passwordsAreHashedWithoutATransactionOrAPooledConnection() {
+        when(passwordHashingService.encode(anyString())).thenAnswer(call -> hashOutsideTransaction());
+        when(passwordHashingService.encodeAll(anyList()))
+                .thenAnswer(call -> Collections.nCopies(call.<List<String>>getArgument(0).size(), hashOutsideTransaction()));
+
+        userService.registerUser(request(1));
+        List<BatchRegistrationResult> results = userService.registerUsersBatch(List.of(request(2), request(3)));
+
+        assertTrue(results.stream().allMatch(r -> r.getStatus() == Status.CREATED));
+        Long users = tx.execute(status -> entityManager.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult());
+        assertEquals(3, users);
+    }
+
+    @Test
+    void emailRegisteredWhileTheBatchIsHashedIsReportedAsDuplicate() {
+        when(passwordHashingService.encodeAll(anyList())).thenAnswer(call -> {
+            // Another request registers user2 after the batch's duplicate lookup
+            tx.executeWithoutResult(status -> {
+                User user = new User();
+                user.setUserName("other");
+                user.setEmail("user2@example.com");
+                user.setPassword("hash");
+                user.setAddress("Pune");
+                user.setContact("98765");
+                entityManager.persist(user);
+            });
+            return Collections.nCopies(call.<List<String>>getArgument(0).size(), "hash");
+        });
+
+        List<BatchRegistrationResult> results = userService.registerUsersBatch(List.of(request(1), request(2), request(3)));
+
+        assertEquals(List.of(Status.CREATED, Status.DUPLICATE, Status.CREATED),
+                results.stream().map(BatchRegistrationResult::getStatus).toList());
+        assertEquals("user2@example.com", results.get(1).getEmail());
+        Long users = tx.execute(status -> entityManager.createQuery("SELECT COUNT(u) FROM User u", Long.class).getSingleResult());
+        assertEquals(3, users);
+    }
+
+    private String hashOutsideTransaction() {
+        assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+        assertEquals(0, pool.getActiveConnections());
+        return "hash";
+    }
+
+    private RegisterRequest request(int i) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUserName("user" + i);
+        request.setEmail("user" + i + "@example.com");
+        request.setPassword("secret");
+        request.setAddress("Pune");
+        request.setContact("98765" + i);
+        return request;
+    }
+}
@@ -0,0 +1,106 @@
+package com.wcs.spring_data_jpa_project.service.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes that commit while a rebuild or refresh is reading the database are newer than the rows it
+ * reads, so they must win over them. Called outside a transaction, the after-commit writes below run
+ * immediately, i.e. in the middle of the load.
+ */
+class UserSearchIndexTest {
+
+    @TempDir
+    Path indexDir;
+
+    private UserSearchIndex index;
+
+    @AfterEach
+    void close() throws IOException {
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    @Test
+    void writesDuringARebuildWinOverTheRowsItRead() throws IOException {
+        index = open();
+        index.rebuild(() -> {
+            // Committed after the rebuild's snapshot was taken
+            index.indexAfterCommit(1L, "alice", "alice.new@example.com", "Mumbai");
+            index.removeAfterCommit(2L);
+            return Stream.of(row(1L, "alice", "alice@example.com", "Pune"), row(2L, "bob", "bob@example.com", "Pune"));
+        });
+
+        assertEquals(List.of(1L), index.search("mumbai", 1, 10));
+        assertEquals(List.of(), index.search("pune", 1, 10));
+        assertEquals(List.of(), index.search("bob", 1, 10));
+    }
+
+    @Test
+    void searchesSeeThePreviousIndexUntilTheRebuildIsDone() throws IOException {
+        index = open();
+        index.rebuild(() -> Stream.<Object[]>of(row(1L, "alice", "alice@example.com", "Pune")));
+
+        index.rebuild(() -> {
+            assertEquals(List.of(1L), index.search("alice", 1, 10));
+            return Stream.<Object[]>of(row(2L, "bob", "bob@example.com", "Pune"));
+        });
+
+        assertEquals(List.of(), index.search("alice", 1, 10));
+        assertEquals(List.of(2L), index.search("bob", 1, 10));
+    }
+
+    @Test
+    void refreshUpdatesOnlyTheStreamedRowsAndAdvancesTheCheckpoint() throws IOException {
+        index = open();
+        assertNull(index.checkpoint());
+        index.rebuild(() -> Stream.of(row(1L, "alice", "alice@example.com", "Pune"), row(2L, "bob", "bob@example.com", "Pune")));
+        Long rebuilt = index.checkpoint();
+        assertNotNull(rebuilt);
+
+        index.refresh(() -> {
+            index.removeAfterCommit(2L);
+            return Stream.of(row(1L, "alice", "alice@example.com", "Nagpur"), row(2L, "bob", "bob@example.com", "Nagpur"));
+        });
+
+        assertEquals(List.of(1L), index.search("nagpur", 1, 10));
+        assertEquals(List.of(), index.search("bob", 1, 10));
+        assertTrue(index.checkpoint() >= rebuilt);
+    }
+
+    @Test
+    void checkpointSurvivesAReopenButNotAFailedRebuild() throws IOException {
+        index = open();
+        index.rebuild(() -> Stream.<Object[]>of(row(1L, "alice", "alice@example.com", "Pune")));
+        Long checkpoint = index.checkpoint();
+        index.close();
+
+        index = open();
+        assertEquals(checkpoint, index.checkpoint());
+        assertThrows(IllegalStateException.class, () -> index.rebuild(() -> {
+            throw new IllegalStateException("connection lost");
+        }));
+        assertNull(index.checkpoint());
+    }
+
+    private UserSearchIndex open() throws IOException {
+        return new UserSearchIndex(indexDir.toString(), 60_000);
+    }
+
+    private static Object[] row(Long id, String userName, String email, String address) {
+        return new Object[]{id, userName, email, address};
+    }
+}